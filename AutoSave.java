@@ -0,0 +1,308 @@
+package pratt.dan.sudoku;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;  // records are built in a buffer before they are written
+import java.nio.channels.FileChannel;  // the autosave file
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;  // for replacing the autosave file in one step
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;  // cells changed since the last flush
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;  // the autosave thread
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the current game in the background as it is played, so moves are not lost if the game is killed before it can write the MRU file.
+ * <p>
+ * The autosave file starts with a full copy of the board in the compact save format, taken when the board is attached.  After that, only the cells that
+ * changed are added to the end of the file, each as its cell number and value.  Changes are gathered up and written at most once per interval,
+ * or sooner once enough moves have been made.  When the changes have grown large, the file is started again from a fresh copy of the board.
+ * <p>
+ * Each fresh copy is written to a temporary file first and then put in place of the old file, so the autosave file is never left half written.
+ * recover() reads the file back into a board.  Changes cut off part way through by the game being killed are left out.
+ * Writing happens on a background thread; the board itself is never read from that thread.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class AutoSave implements CellListener {
+
+	// File format
+	private static final int AUTOSAVE_MAGIC = 0x53444B41;  // "SDKA", marks an autosave file
+	private static final byte AUTOSAVE_VERSION = 1;  // bumped whenever the layout of the file changes
+	private static final int HEADER_BYTES = 9;  // magic, version, length of the board copy
+	private static final int CELL_BYTES = 6;  // cell number (int), then value with the given flag (short)
+
+	// Bytes of changes after which the file is started again from a fresh copy of the board
+	private static final int COMPACT_BYTES = 64 * 1024;
+
+	// Settings
+	private final File file;
+	private final long intervalMillis;  // longest time a change waits before it is written
+	private final int maxMoves;  // number of moves that are written without waiting for the interval
+
+	// The autosave thread.  Everything below "Owned by the autosave thread" is only touched there.
+	private final ScheduledExecutorService saveThread = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "Sudoku autosave");
+			thread.setDaemon(true);  // never keep the game from exiting; close() writes what is left
+			return thread;
+		}
+	});
+
+	// Changes not written yet.  Guarded by this.
+	private SudokuBase board;  // the board being saved, null if none is attached
+	private BitSet changedCells;  // cells changed since the last flush
+	private int[] changedValues;  // newest value of each changed cell, with GIVEN_MASK set for givens
+	private int moves;  // moves since the last flush
+	private boolean flushQueued;  // true once a flush has been scheduled and has not run yet
+
+	// Owned by the autosave thread
+	private FileChannel channel;  // open autosave file, null until the first board is written
+	private SudokuBoard saved;  // what the file holds, kept to start the file again from
+	private long changeBytes;  // bytes of changes written since the board copy
+
+	/**
+	 * Creates an autosave that writes to a file.  Nothing is written until a board is attached.
+	 * @param file The autosave file.
+	 * @param intervalMillis Longest time, in milliseconds, a change waits before it is written.
+	 * @param maxMoves Number of moves after which the changes are written right away.
+	 */
+	public AutoSave(File file, long intervalMillis, int maxMoves) {
+		if (intervalMillis < 1 || maxMoves < 1) throw new IllegalArgumentException("Autosave limits out of range");
+		this.file = file;
+		this.intervalMillis = intervalMillis;
+		this.maxMoves = maxMoves;
+	}
+
+	/**
+	 * Starts saving a board, in place of the board saved before.  Writes a full copy of the board first.  Does nothing if the board is already attached.
+	 * Must be called on the thread that changes the board.
+	 * @param newBoard The board to save.
+	 */
+	public void attach(SudokuBase newBoard) {
+		final ByteBuffer copy;
+		synchronized (this) {
+			if (newBoard == board) return;
+			if (board != null) board.removeCellListener(this);
+			board = newBoard;
+			changedCells = new BitSet(newBoard.size * newBoard.size);
+			changedValues = new int[newBoard.size * newBoard.size];
+			moves = 0;
+			copy = SudokuBase.encode(newBoard);  // taken before any change can be heard, so none are missed
+			newBoard.addCellListener(this);
+		}
+		saveThread.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					saved = SudokuBase.decode(copy.duplicate());
+					writeBoard(copy);
+				} catch (IOException e) {
+					closeFile();  // autosave is a safety net, so a failure is not shown; the next attach tries again
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops saving the board that is attached.  Changes already heard are still written.
+	 */
+	public synchronized void detach() {
+		if (board == null) return;
+		board.removeCellListener(this);
+		board = null;
+	}
+
+	/**
+	 * Writes the changes heard so far, then stops the autosave thread, waiting up to the given time.  Call it before the game exits.
+	 * @param waitMillis Longest time to wait for the file to be written.
+	 */
+	public void close(long waitMillis) {
+		detach();
+		try {
+			saveThread.execute(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+					closeFile();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			return;  // already closed
+		}
+		saveThread.shutdown();
+		try {
+			saveThread.awaitTermination(waitMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();  // keep the interrupt for the caller
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see CellListener#cellChanged(SudokuBase, int, int, int, int, boolean)
+	 */
+	@Override
+	public void cellChanged(SudokuBase changed, int row, int col, int oldValue, int newValue, boolean given) {
+		boolean flushNow;
+		synchronized (this) {
+			if (changed != board) return;  // a board that was just replaced
+			int index = row * changed.size + col;
+			changedCells.set(index);
+			changedValues[index] = given ? newValue | SudokuBase.GIVEN_MASK : newValue;
+			moves++;
+			flushNow = moves >= maxMoves;
+			if (flushQueued && !flushNow) return;  // already waiting for the interval
+			if (flushNow) moves = 0;  // so the following moves do not queue a flush each
+			flushQueued = true;
+		}
+		Runnable flush = new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		};
+		try {
+			if (flushNow) {
+				saveThread.execute(flush);
+			} else {
+				saveThread.schedule(flush, intervalMillis, TimeUnit.MILLISECONDS);
+			}
+		} catch (RejectedExecutionException e) {
+			// closed, so there is nothing more to write
+		}
+	}
+
+	/**
+	 * Reads an autosave file back into a board.
+	 * @param file The autosave file.
+	 * @return The board as last saved, with its givens.
+	 * @throws IOException If the file cannot be read or is not an autosave file.
+	 */
+	public static SudokuBoard recover(File file) throws IOException {
+		FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		ByteBuffer data;
+		try {
+			data = ByteBuffer.allocate((int) in.size());
+			while (data.hasRemaining() && in.read(data) >= 0) {
+				// keep reading until the buffer is full
+			}
+		} finally {
+			in.close();
+		}
+		data.flip();
+		if (data.remaining() < HEADER_BYTES || data.getInt() != AUTOSAVE_MAGIC) throw new IOException("Not a Sudoku autosave file");
+		byte version = data.get();
+		if (version != AUTOSAVE_VERSION) throw new IOException("Unsupported autosave file version: " + version);
+		int copyBytes = data.getInt();
+		if (copyBytes < 0 || copyBytes > data.remaining()) throw new IOException("Autosave file is too short");
+		ByteBuffer copy = data.slice();
+		copy.limit(copyBytes);
+		SudokuBoard board = SudokuBase.decode(copy);
+		data.position(data.position() + copyBytes);
+
+		// apply each whole group of changes; a group cut short was never finished, so it is left out
+		int cells = board.size * board.size;
+		while (data.remaining() >= 4) {
+			int count = data.getInt();
+			if (count < 0 || count > cells || data.remaining() < count * CELL_BYTES) break;
+			for (int i = 0; i < count; i++) {
+				int index = data.getInt();
+				int raw = data.getShort() & 0xFFFF;
+				if (index < 0 || index >= cells || (raw & ~SudokuBase.GIVEN_MASK) > board.size) throw new IOException("Bad change in autosave file");
+				board.setRawValue(index / board.size, index % board.size, raw);
+			}
+		}
+		return board;
+	}
+
+	/*
+	 * Writes the changes heard since the last flush to the end of the file.  Runs on the autosave thread.
+	 */
+	private void flush() {
+		ByteBuffer record;
+		synchronized (this) {
+			flushQueued = false;
+			moves = 0;
+			if (changedCells == null || changedCells.isEmpty()) return;
+			record = ByteBuffer.allocate(4 + changedCells.cardinality() * CELL_BYTES);
+			record.putInt(changedCells.cardinality());
+			for (int index = changedCells.nextSetBit(0); index >= 0; index = changedCells.nextSetBit(index + 1)) {
+				record.putInt(index);
+				record.putShort((short) changedValues[index]);
+			}
+			changedCells.clear();
+		}
+		record.flip();
+		if (channel == null || saved == null) return;  // the board copy could not be written
+		try {
+			// keep the saved copy current, so the file can be started again from it
+			int count = record.getInt(0);
+			for (int i = 0; i < count; i++) {
+				int index = record.getInt(4 + i * CELL_BYTES);
+				saved.setRawValue(index / saved.size, index % saved.size, record.getShort(8 + i * CELL_BYTES) & 0xFFFF);
+			}
+			if (changeBytes + record.remaining() > COMPACT_BYTES) {
+				writeBoard(SudokuBase.encode(saved));  // start again, dropping the old changes
+			} else {
+				while (record.hasRemaining()) {
+					channel.write(record);
+				}
+				changeBytes += record.limit();
+			}
+		} catch (IOException e) {
+			closeFile();
+		}
+	}
+
+	/*
+	 * Starts the file again with a full copy of the board.  The copy is written to a temporary file that then replaces the autosave file in one step,
+	 * so a game killed part way through still leaves the old autosave file whole.  Runs on the autosave thread.
+	 */
+	private void writeBoard(ByteBuffer copy) throws IOException {
+		closeFile();  // the old file is replaced, so the channel to it is no longer wanted
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(AUTOSAVE_MAGIC);
+		header.put(AUTOSAVE_VERSION);
+		header.putInt(copy.remaining());
+		header.flip();
+		Path target = file.getAbsoluteFile().toPath();
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");  // same directory, so the move cannot cross disks
+		FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (header.hasRemaining()) {
+				out.write(header);
+			}
+			while (copy.hasRemaining()) {
+				out.write(copy);
+			}
+			out.force(false);  // on the disk before it replaces the old file
+		} finally {
+			out.close();
+		}
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);  // best this file system can do
+		}
+		channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND);  // changes go on the end of the new copy
+		changeBytes = 0;
+	}
+
+	/*
+	 * Closes the file, ignoring errors.  Runs on the autosave thread.
+	 */
+	private void closeFile() {
+		if (channel == null) return;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing more can be done
+		}
+		channel = null;
+	}
+}
@@ -0,0 +1,401 @@
+package pratt.dan.sudoku;
+import java.util.Arrays;  // for clearing the working arrays
+import java.util.concurrent.atomic.AtomicBoolean;  // for stopping a search from another thread
+
+/**
+ * Solves Sudoku boards of any layout by keeping a bit mask of the values already used in every row, column, and region.
+ * Each round places naked singles (cells with only one possible value) and hidden singles (values with only one possible cell in an area),
+ * then guesses on the cell with the fewest possible values and backs out of the guess if it leads to a dead end.
+ * Supports boards with up to 63 values per row (bit masks are held in a long).
+ *
+ * Working arrays are kept between calls and only re-created when the board size changes, so repeated solves do not create garbage.
+ * Because of this a CandidateSolver object must not be shared between threads.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class CandidateSolver implements SudokuSolver {
+
+	/** Largest number of values per row, column, or region that fits in the bit masks. */
+	public static final int MAX_SIZE = 63;
+
+	// Flag variables
+	private final boolean givensOnly;  // if true, values the player entered are ignored and only givens are used as the starting point
+
+	// Layout of the board the working arrays were created for
+	private int rows, columns, size, cellCount;
+	private long allValues;  // bit mask with one bit set for every value from 1 to size
+
+	// Lookup tables, created once per layout
+	private int[] rowOf, columnOf, regionOf;  // area each cell belongs to
+	private int[] areaCells;  // cells in every row, then every column, then every region (size entries per area)
+
+	// Working state, reset for every solve
+	private int[] cells;  // value in each cell, 0 for empty
+	private long[] rowUsed, columnUsed, regionUsed;  // values already placed in each area
+	private int[] trail;  // cells in the order they were filled, so guesses can be backed out
+	private int trailTop;  // number of cells on the trail
+	private int[] puzzle;  // copy of the board being solved
+
+	// Results of the current search
+	private int[] solution;  // where the first solution is written, can be null when only counting
+	private int solutionCount, solutionLimit;
+	private AtomicBoolean stopSignal;  // when set by another thread the search gives up, can be null
+
+	/**
+	 * Creates a solver that uses every filled in value on a board as part of the puzzle.
+	 */
+	public CandidateSolver() {
+		this(false);
+	}
+
+	/**
+	 * Creates a solver.
+	 * @param givensOnly true to ignore values the player has entered and solve from the givens alone (useful for hints, since entries may be wrong), false to use every filled in value.
+	 */
+	public CandidateSolver(boolean givensOnly) {
+		this.givensOnly = givensOnly;
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#solve(SudokuBase, int[])
+	 */
+	@Override
+	public boolean solve(SudokuBase board, int[] solution) {
+		if (solution == null || solution.length < board.size * board.size) {
+			throw new IllegalArgumentException("Solution array is too small");
+		}
+		return search(copyBoard(board), solution, 1) == 1;
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#countSolutions(SudokuBase, int)
+	 */
+	@Override
+	public int countSolutions(SudokuBase board, int limit) {
+		checkLimit(limit);
+		return search(copyBoard(board), null, limit);
+	}
+
+	/**
+	 * Solves a puzzle held in a plain array instead of a SudokuBase object.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param puzzle Values of the puzzle, one per cell, row by row, 0 for empty cells.  Not changed.
+	 * @param solution Array the solution is written into (can be the same array as puzzle).
+	 * @return true if a solution was found, false if the puzzle cannot be solved.
+	 */
+	public boolean solve(int layoutRows, int layoutColumns, int[] puzzle, int[] solution) {
+		setLayout(layoutRows, layoutColumns);
+		if (solution == null || solution.length < cellCount) {
+			throw new IllegalArgumentException("Solution array is too small");
+		}
+		return search(puzzle, solution, 1) == 1;
+	}
+
+	/**
+	 * Counts the solutions of a puzzle held in a plain array, stopping once the limit is reached.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param puzzle Values of the puzzle, one per cell, row by row, 0 for empty cells.  Not changed.
+	 * @param limit The most solutions to look for (must be at least 1).
+	 * @return The number of solutions found, from 0 up to and including limit.
+	 */
+	public int countSolutions(int layoutRows, int layoutColumns, int[] puzzle, int limit) {
+		checkLimit(limit);
+		setLayout(layoutRows, layoutColumns);
+		return search(puzzle, null, limit);
+	}
+
+	/*
+	 * Used by ParallelSolver to count solutions of one branch of a search, writing the first one into solution (which can be null).
+	 */
+	int countSolutions(int layoutRows, int layoutColumns, int[] puzzle, int[] solution, int limit) {
+		checkLimit(limit);
+		setLayout(layoutRows, layoutColumns);
+		return search(puzzle, solution, limit);
+	}
+
+	/*
+	 * Used by ParallelSolver so a search can be called off once another thread has found enough solutions.
+	 */
+	void setStopSignal(AtomicBoolean stopSignal) {
+		this.stopSignal = stopSignal;
+	}
+
+	/*
+	 * Used by ParallelSolver to split a search.  Fills in every forced value of puzzle (in place), then returns the empty cell with the fewest possible values,
+	 * -1 if the puzzle is solved, or -2 if it has no solution.  The possible values of the returned cell are given by candidatesOf().
+	 */
+	int simplify(int layoutRows, int layoutColumns, int[] puzzle) {
+		setLayout(layoutRows, layoutColumns);
+		Arrays.fill(rowUsed, 0L);
+		Arrays.fill(columnUsed, 0L);
+		Arrays.fill(regionUsed, 0L);
+		trailTop = 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			int value = puzzle[cell];
+			cells[cell] = 0;
+			if (value == 0) continue;
+			if (value < 0 || value > size || (candidates(cell) & bit(value)) == 0) return -2;
+			place(cell, value);
+		}
+		if (!propagate()) return -2;
+		System.arraycopy(cells, 0, puzzle, 0, cellCount);
+		int bestCell = -1, bestCount = Integer.MAX_VALUE;
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (cells[cell] != 0) continue;
+			int count = Long.bitCount(candidates(cell));
+			if (count < bestCount) {
+				bestCell = cell;
+				bestCount = count;
+			}
+		}
+		return bestCell;
+	}
+
+	/*
+	 * Possible values of a cell after simplify(), as a bit mask (bit 0 is the value 1).
+	 */
+	long candidatesOf(int cell) {
+		return candidates(cell);
+	}
+
+	/*
+	 * Makes sure a solution limit makes sense.
+	 */
+	private void checkLimit(int limit) {
+		if (limit < 1) throw new IllegalArgumentException("Limit out of range: " + limit);
+	}
+
+	/*
+	 * Copies the values of a board into the puzzle array (creating the working arrays first if the layout changed).
+	 */
+	private int[] copyBoard(SudokuBase board) {
+		setLayout(board.rows, board.columns);
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				boolean use = !givensOnly || board.isGiven(row, col);
+				puzzle[row * size + col] = use ? board.getValue(row, col) : 0;
+			}
+		}
+		return puzzle;
+	}
+
+	/*
+	 * Creates the lookup tables and working arrays for a layout.  Does nothing if they already match.
+	 */
+	private void setLayout(int layoutRows, int layoutColumns) {
+		if (layoutRows == rows && layoutColumns == columns) return;  // already set up for this layout
+		int newSize = layoutRows * layoutColumns;
+		if (layoutRows < 1 || layoutColumns < 1 || newSize > MAX_SIZE) {
+			throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		}
+		rows = layoutRows;
+		columns = layoutColumns;
+		size = newSize;
+		cellCount = size * size;
+		allValues = (1L << size) - 1;
+
+		rowOf = new int[cellCount];
+		columnOf = new int[cellCount];
+		regionOf = new int[cellCount];
+		areaCells = new int[3 * cellCount];
+		int[] filledSoFar = new int[3 * size];  // next free slot for each area while filling areaCells
+		for (int cell = 0; cell < cellCount; cell++) {
+			int row = cell / size, col = cell % size;
+			rowOf[cell] = row;
+			columnOf[cell] = col;
+			regionOf[cell] = row / rows * rows + col / columns;  // same numbering as SudokuBoard regions
+			int[] areas = {row, size + col, 2 * size + regionOf[cell]};
+			for (int area : areas) {
+				areaCells[area * size + filledSoFar[area]++] = cell;
+			}
+		}
+
+		cells = new int[cellCount];
+		trail = new int[cellCount];
+		puzzle = new int[cellCount];
+		rowUsed = new long[size];
+		columnUsed = new long[size];
+		regionUsed = new long[size];
+	}
+
+	/*
+	 * Loads a puzzle and searches it for solutions.  Returns the number of solutions found, up to limit.
+	 */
+	private int search(int[] startingValues, int[] solution, int limit) {
+		// clear out the last search
+		Arrays.fill(rowUsed, 0L);
+		Arrays.fill(columnUsed, 0L);
+		Arrays.fill(regionUsed, 0L);
+		trailTop = 0;
+		this.solution = solution;
+		solutionCount = 0;
+		solutionLimit = limit;
+
+		// place the starting values, giving up if any of them clash
+		for (int cell = 0; cell < cellCount; cell++) {
+			int value = startingValues[cell];
+			cells[cell] = 0;
+			if (value == 0) continue;
+			if (value < 0 || value > size || (candidates(cell) & bit(value)) == 0) {
+				this.solution = null;
+				return 0;  // out of range or duplicated, so there is no solution
+			}
+			place(cell, value);
+		}
+
+		searchFrom();
+		this.solution = null;  // don't hold on to the caller's array
+		return solutionCount;
+	}
+
+	/*
+	 * Fills in everything that is forced, then guesses on the cell with the fewest choices.
+	 * Returns true once enough solutions have been found to stop looking.
+	 */
+	private boolean searchFrom() {
+		if (stopSignal != null && stopSignal.get()) return true;  // another thread has already finished the job
+		int mark = trailTop;  // everything placed after this point belongs to this level of the search
+		if (!propagate()) {
+			undoTo(mark);
+			return false;  // dead end
+		}
+
+		// find the empty cell with the fewest possible values
+		int bestCell = -1, bestCount = Integer.MAX_VALUE;
+		for (int cell = 0; cell < cellCount && bestCount > 2; cell++) {
+			if (cells[cell] != 0) continue;
+			int count = Long.bitCount(candidates(cell));
+			if (count < bestCount) {
+				bestCell = cell;
+				bestCount = count;
+			}
+		}
+
+		// no empty cells left, so the board is solved
+		if (bestCell < 0) {
+			if (solutionCount == 0 && solution != null) {
+				System.arraycopy(cells, 0, solution, 0, cellCount);
+			}
+			solutionCount++;
+			undoTo(mark);
+			return solutionCount >= solutionLimit;
+		}
+
+		// try every possible value in that cell
+		long choices = candidates(bestCell);
+		while (choices != 0) {
+			long choice = choices & -choices;  // lowest remaining choice
+			choices ^= choice;
+			int guessMark = trailTop;
+			place(bestCell, Long.numberOfTrailingZeros(choice) + 1);
+			if (searchFrom()) {
+				undoTo(mark);
+				return true;
+			}
+			undoTo(guessMark);
+		}
+		undoTo(mark);
+		return false;
+	}
+
+	/*
+	 * Places naked and hidden singles until nothing else is forced.  Returns false if a contradiction is found.
+	 */
+	private boolean propagate() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+
+			// naked singles: cells with only one possible value
+			for (int cell = 0; cell < cellCount; cell++) {
+				if (cells[cell] != 0) continue;
+				long choices = candidates(cell);
+				if (choices == 0) return false;  // nothing fits here
+				if ((choices & (choices - 1)) == 0) {
+					place(cell, Long.numberOfTrailingZeros(choices) + 1);
+					changed = true;
+				}
+			}
+
+			// hidden singles: values that only fit in one cell of a row, column, or region
+			for (int area = 0; area < 3 * size; area++) {
+				int first = area * size;
+				long once = 0, twice = 0;
+				for (int i = first; i < first + size; i++) {
+					int cell = areaCells[i];
+					if (cells[cell] != 0) continue;
+					long choices = candidates(cell);
+					twice |= once & choices;
+					once |= choices;
+				}
+				long used = usedIn(area);
+				if ((once | used) != allValues) return false;  // some value no longer fits anywhere in this area
+				long single = once & ~twice;
+				while (single != 0) {
+					long value = single & -single;
+					single ^= value;
+					for (int i = first; i < first + size; i++) {
+						int cell = areaCells[i];
+						if (cells[cell] == 0 && (candidates(cell) & value) != 0) {
+							place(cell, Long.numberOfTrailingZeros(value) + 1);
+							changed = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Values already used in an area (rows first, then columns, then regions).
+	 */
+	private long usedIn(int area) {
+		if (area < size) return rowUsed[area];
+		if (area < 2 * size) return columnUsed[area - size];
+		return regionUsed[area - 2 * size];
+	}
+
+	/*
+	 * Values that could still go into an empty cell.
+	 */
+	private long candidates(int cell) {
+		return allValues & ~(rowUsed[rowOf[cell]] | columnUsed[columnOf[cell]] | regionUsed[regionOf[cell]]);
+	}
+
+	/*
+	 * Puts a value into a cell and records it on the trail.
+	 */
+	private void place(int cell, int value) {
+		long mask = bit(value);
+		cells[cell] = value;
+		rowUsed[rowOf[cell]] |= mask;
+		columnUsed[columnOf[cell]] |= mask;
+		regionUsed[regionOf[cell]] |= mask;
+		trail[trailTop++] = cell;
+	}
+
+	/*
+	 * Takes values back out of cells until the trail is back to the given length.
+	 */
+	private void undoTo(int mark) {
+		while (trailTop > mark) {
+			int cell = trail[--trailTop];
+			long mask = ~bit(cells[cell]);
+			cells[cell] = 0;
+			rowUsed[rowOf[cell]] &= mask;
+			columnUsed[columnOf[cell]] &= mask;
+			regionUsed[regionOf[cell]] &= mask;
+		}
+	}
+
+	/*
+	 * Bit used to represent a value in the masks.
+	 */
+	private static long bit(int value) {
+		return 1L << (value - 1);
+	}
+}
@@ -0,0 +1,22 @@
+package pratt.dan.sudoku;
+/**
+ * Receives a call for every change to a single cell of a SudokuBase object, so views and checks can update just the cell that changed
+ * instead of looking at the whole board again.
+ * Listeners are called on the thread that changed the board, right after the change, even inside a beginUpdate() / endUpdate() batch.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public interface CellListener {
+
+   /**
+    * Called after the value or given flag of a cell has changed.
+    * @param board The board that changed.
+    * @param row The row of the cell that changed.
+    * @param col The column of the cell that changed.
+    * @param oldValue The value the cell held before the change (0 for an empty cell).
+    * @param newValue The value the cell holds now (0 for an empty cell).
+    * @param given true if the cell is now a given.
+    */
+   public void cellChanged(SudokuBase board, int row, int col, int oldValue, int newValue, boolean given);
+
+}
@@ -4,8 +4,6 @@ import java.awt.Dimension;  // for setting dimension
 import java.awt.FlowLayout;  // for flowlayout use
 import java.awt.Graphics;  // for drawing
 import java.awt.GridLayout;  // for grid layout use
-import java.util.Observable;  // for implementing observer
-import java.util.Observer;  // for implementing observer
 
 import javax.swing.BorderFactory;  // for creating the border
 import javax.swing.JPanel;  // for using JPanel (the rest of swing is not needed)
@@ -14,6 +12,7 @@ import javax.swing.border.Border;  // for creating the compound border
 
 	/**
 	 * View that shows graphically how user is doing.  Will show if user has completed sections, if they are incomplete or in error.
+	 * Listens for changes to single cells, checks only the row, column and region holding the changed cell, and recolors only the indicators whose state changed.
 	 * Level: Challenge
 	 * 
 	 * @author Dan Pratt
@@ -21,7 +20,7 @@ import javax.swing.border.Border;  // for creating the compound border
 	 * 
 	 *
 	 */
-	class CompletionView extends JPanel implements Observer {
+	class CompletionView extends JPanel implements CellListener {
 		private final Dimension preferredSize = new Dimension(44, 44);
 		private final Border CompletionViewBorder = BorderFactory.createCompoundBorder(
 				BorderFactory.createRaisedBevelBorder(), BorderFactory.createLoweredBevelBorder());  // create a compound border to create a cool effect
@@ -30,6 +29,7 @@ import javax.swing.border.Border;  // for creating the compound border
 		private JPanel rowCompletion = new JPanel();  // For row completion status
 		private JPanel columnCompletion = new JPanel();  // For column completion status
 		private JPanel regionCompletion = new JPanel();  // for region completion status
+		private CompletionCell[] rowCells, columnCells, regionCells;  // indicators, by row, column, or region number
 		
 		// background color for frame
 		private static final Color darkBackground = new Color(0, 121, 150);
@@ -72,20 +72,50 @@ import javax.swing.border.Border;  // for creating the compound border
 		 * Updates view with correct data for rows, columns, and regions.
 		 */
 		private void setupViews() {
+			rowCells = new CompletionCell[data.size];
+			columnCells = new CompletionCell[data.size];
+			regionCells = new CompletionCell[data.size];
 			for ( int i = 0; i < data.size; i++ ) {
-				rowCompletion.add(new CompletionCell(i, SudokuBase.Type.ROW));
-				columnCompletion.add(new CompletionCell(i, SudokuBase.Type.COLUMN));
-				regionCompletion.add(new CompletionCell(i, SudokuBase.Type.REGION));
+				rowCompletion.add(rowCells[i] = new CompletionCell(i, SudokuBase.Type.ROW));
+				columnCompletion.add(columnCells[i] = new CompletionCell(i, SudokuBase.Type.COLUMN));
+				regionCompletion.add(regionCells[i] = new CompletionCell(i, SudokuBase.Type.REGION));
 			}
 			
 		}
-
+		
+		/**
+		 * Starts listening to the model once the view is shown, and brings every indicator up to date (the board may have changed while the view was hidden).
+		 */
+		@Override
+		public void addNotify() {
+			super.addNotify();
+			data.addCellListener(this);
+			for ( int i = 0; i < data.size; i++ ) {
+				rowCells[i].refresh();
+				columnCells[i].refresh();
+				regionCells[i].refresh();
+			}
+		}
+		
 		/**
-		 * Repaints the view to update any changes
+		 * Stops listening to the model once the view is taken off the screen.
+		 */
+		@Override
+		public void removeNotify() {
+			data.removeCellListener(this);
+			super.removeNotify();
+		}
+
+		/* (non-Javadoc)
+		 * @see CellListener#cellChanged(SudokuBase, int, int, int, int, boolean)
 		 */
 		@Override
-		public void update(Observable sudokuBoard, Object arg) {
-			repaint();
+		public void cellChanged(SudokuBase board, int row, int col, int oldValue, int newValue, boolean given) {
+			if (oldValue == newValue) return;  // only the given flag changed, no state can change
+			// only the units holding the cell can have changed
+			rowCells[row].refresh();
+			columnCells[col].refresh();
+			regionCells[data.getRegion(row, col)].refresh();
 		}
 		
 	
@@ -111,34 +141,35 @@ import javax.swing.border.Border;  // for creating the compound border
 			this.type = type;  // set the type that cell is responsible for
 		}
 		
-		/**
-		 * Sets color based on state to display game status to user
+		/*
+		 * Checks the state of the area and recolors the cell if it changed (setBackground repaints it).  Painting itself does no checking.
 		 */
-		public void paintComponent(Graphics g) {
-			super.paintComponent(g);  // clear whatever used to be there
-			
+		void refresh() {
+			SudokuBoard.State newState = null;
 			// get data based on what we are checking (ROW, COLUMN, or REGION)
 			switch (type) {
 			case ROW:
-				state = data.getRowState(area);
+				newState = data.getRowState(area);
 				break;
 			case COLUMN:
-				state = data.getColumnState(area);
+				newState = data.getColumnState(area);
 				break;
 			case REGION:
-				state = data.getRegionState(area);
+				newState = data.getRegionState(area);
 				break;
 			}
+			if (newState == state) return;  // nothing to redraw
+			state = newState;
 			
 			// Now set he color based on the state we found
 			if (state == SudokuBoard.State.INCOMPLETE) {
 				setBackground(incompleteBackground);
 			} else if (state == SudokuBoard.State.ERROR) {
-				setBackground(errorBackground);;
+				setBackground(errorBackground);
 			} else {
 				setBackground(completeBackground);
 			}
 			
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package pratt.dan.sudoku;
+import java.util.BitSet;  // cells changed during a batch update
+import java.util.concurrent.atomic.AtomicIntegerArray;  // cells every thread can read without locking
+
+/**
+ * A Sudoku board that many threads can read and change at the same time, for example a hint engine, an autosave thread, and network players all
+ * working on the same game.
+ * <p>
+ * Values are kept in an AtomicIntegerArray, so reads never lock and always see the latest value written.  Changes lock only the region holding the cell,
+ * so threads working in different regions never wait for each other.  Holding that lock while checking the cell means a given can never be overwritten,
+ * even by a change that races with fixGivens().
+ * <p>
+ * Cell listeners are called while the region lock is held, so the calls for any one cell arrive in the order the changes were made, and each call's
+ * old value is the previous call's new value.  Because of that, a listener must not wait for another thread that changes this board.
+ * Observers are notified after the lock is released.  A beginUpdate() / endUpdate() batch covers changes made by every thread while it is open.
+ * <p>
+ * Row, column and region states are worked out from the cells each time they are asked for.  While other threads are changing the board,
+ * they describe a recent state of the area rather than a single moment.  Moves are not recorded for undo, since the moves of different players
+ * cannot be taken back one at a time in any order that makes sense to all of them.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class ConcurrentSudokuBoard extends SudokuBase {
+
+	private static final long serialVersionUID = 1L;
+
+	// The board, row by row, in the same raw form SudokuBase uses (value, with GIVEN_MASK set for givens)
+	private final AtomicIntegerArray cells;
+
+	// One lock for each region.  Rebuilt after loading, so they are not saved.
+	private transient Object[] regionLocks;
+
+	// Batch update tracking, shared by every thread and guarded by batchLock
+	private transient Object batchLock;
+	private transient int updateDepth;  // number of beginUpdate() calls not yet matched by endUpdate()
+	private transient BitSet dirtyCells;  // cells changed since the outermost beginUpdate(), by index
+
+	/**
+	 * Creates a new, empty ConcurrentSudokuBoard.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 */
+	public ConcurrentSudokuBoard(int layoutRows, int layoutColumns) {
+		super(layoutRows, layoutColumns, false);
+		if (size > 63) throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		cells = new AtomicIntegerArray(size * size);
+		createLocks();
+	}
+
+	/**
+	 * Creates a ConcurrentSudokuBoard holding the same values and givens as another board.
+	 * @param board The board to copy.
+	 */
+	public ConcurrentSudokuBoard(SudokuBase board) {
+		this(board.rows, board.columns);
+		for (int cell = 0; cell < size * size; cell++) {
+			cells.set(cell, board.readCell(cell));
+		}
+	}
+
+	@Override
+	int readCell(int index) {
+		return cells.get(index);
+	}
+
+	@Override
+	void writeCell(int index, int raw) {
+		cells.set(index, raw);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Safe to call from any thread.  Throws IllegalStateException if the cell is a given, even if it became one a moment before.
+	 */
+	@Override
+	public void setValue(int row, int col, int value) {
+		if (value < 0 || value > size) throw new IllegalArgumentException("Value out of range: " + value);
+		int index = getIndex(row, col);
+		synchronized (lockFor(row, col)) {
+			int oldRaw = cells.get(index);
+			if ((oldRaw & GIVEN_MASK) == GIVEN_MASK) {
+				throw new IllegalStateException("Cannot set given location: " + row + ", " + col);
+			}
+			cells.set(index, value);
+			valueChanged(row, col, oldRaw, value);
+			fireCellChanged(row, col, oldRaw, value, false);
+		}
+		cellChanged(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Safe to call from any thread.  Each cell is fixed under its region's lock, so a change racing with this call either lands before the cell
+	 * becomes a given (and is fixed with it) or is refused.
+	 */
+	@Override
+	public void fixGivens() {
+		beginUpdate();  // one notification for the whole board
+		try {
+			for (int index = 0; index < size * size; index++) {
+				int row = index / size, col = index % size;
+				boolean changed = false;
+				synchronized (lockFor(row, col)) {
+					int raw = cells.get(index);
+					if (raw != 0) {
+						cells.set(index, raw | GIVEN_MASK);
+						int value = raw & ~GIVEN_MASK;
+						fireCellChanged(row, col, value, value, true);
+						changed = true;
+					}
+				}
+				if (changed) cellChanged(index);
+			}
+		} finally {
+			endUpdate();
+		}
+	}
+
+	/*
+	 * Writes a cell, given flag and all, under its region's lock.
+	 */
+	@Override
+	protected void setRawValue(int row, int col, int value) {
+		getIndex(row, col);  // checks the cell is on the board before its lock is looked up
+		synchronized (lockFor(row, col)) {
+			super.setRawValue(row, col, value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Safe to call from any thread.
+	 */
+	@Override
+	public void beginUpdate() {
+		synchronized (batchLock) {
+			updateDepth++;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Safe to call from any thread.  Observers are notified after the batch lock is released.
+	 */
+	@Override
+	public void endUpdate() {
+		BitSet changed;
+		synchronized (batchLock) {
+			if (updateDepth == 0) throw new IllegalStateException("endUpdate() called without beginUpdate()");
+			updateDepth--;
+			if (updateDepth > 0 || dirtyCells == null || dirtyCells.isEmpty()) return;
+			changed = (BitSet) dirtyCells.clone();  // observers get their own copy
+			dirtyCells.clear();
+		}
+		setChanged();
+		notifyObservers(changed);
+	}
+
+	/*
+	 * Notifies observers that a cell changed, or remembers it for endUpdate() if a batch is open on any thread.
+	 */
+	@Override
+	void cellChanged(int index) {
+		synchronized (batchLock) {
+			if (updateDepth > 0) {
+				if (dirtyCells == null) dirtyCells = new BitSet(size * size);
+				dirtyCells.set(index);
+				return;
+			}
+		}
+		setChanged();
+		notifyObservers();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public State getRowState(int n) {
+		return scanState(Type.ROW, n);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public State getColumnState(int n) {
+		return scanState(Type.COLUMN, n);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public State getRegionState(int n) {
+		return scanState(Type.REGION, n);
+	}
+
+	/**
+	 * Checks if the board is solved: every cell is filled in and no row, column or region has a duplicate.
+	 * @return true if every row, column and region is COMPLETE.
+	 */
+	public boolean isSolved() {
+		for (int n = 0; n < size; n++) {
+			if (getRowState(n) != State.COMPLETE || getColumnState(n) != State.COMPLETE || getRegionState(n) != State.COMPLETE) return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Finds the lock for the region holding a cell.
+	 */
+	private Object lockFor(int row, int col) {
+		return regionLocks[row / rows * rows + col / columns];
+	}
+
+	/*
+	 * Creates the region locks and the batch lock.
+	 */
+	private void createLocks() {
+		regionLocks = new Object[size];
+		for (int region = 0; region < size; region++) {
+			regionLocks[region] = new Object();
+		}
+		batchLock = new Object();
+	}
+
+	/*
+	 * Creates the locks again after a board is loaded, since they are not written out with the rest of the board.
+	 */
+	private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		createLocks();
+	}
+}
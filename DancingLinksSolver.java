@@ -0,0 +1,328 @@
+package pratt.dan.sudoku;
+/**
+ * Solves Sudoku boards of any layout as an exact cover problem using Knuth's Dancing Links (Algorithm X).
+ * Every (cell, value) choice is a row of the matrix, and it covers four constraints: the cell is filled, and the value appears once in its row, its column, and its region.
+ *
+ * The links are kept in flat int arrays (one slot per node) instead of node objects, so even 36 x 36 boards only need a handful of arrays.
+ * The matrix is built once per layout; starting values are covered before each search and uncovered afterwards, so repeated solves do not create garbage.
+ * Because of this a DancingLinksSolver object must not be shared between threads.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class DancingLinksSolver implements SudokuSolver {
+
+	// Number of constraints each choice covers (cell, row, column, region)
+	private static final int CONSTRAINTS = 4;
+	// Index of the root node, the column headers follow it.
+	private static final int ROOT = 0;
+
+	// Flag variables
+	private final boolean givensOnly;  // if true, values the player entered are ignored and only givens are used as the starting point
+
+	// Layout of the board the matrix was created for
+	private int rows, columns, size, cellCount;
+
+	// The matrix: links for every node, including the root and column headers
+	private int[] left, right, up, down;
+	private int[] columnOf;  // header of the column each node is in
+	private int[] choiceOf;  // choice (cell * size + value - 1) each node belongs to, -1 for headers
+	private int[] columnSize;  // number of nodes still in each column
+	private int[] firstNode;  // first node of each choice's row in the matrix
+	private boolean[] covered;  // which column headers are currently covered
+
+	// Working state for a search
+	private int[] chosen;  // node picked at every level of the search, starting values first
+	private int chosenTop;  // number of entries in chosen
+	private int[] puzzle;  // copy of the board being solved
+	private int[] solution;  // where the first solution is written, can be null when only counting
+	private int solutionCount, solutionLimit;
+
+	/**
+	 * Creates a solver that uses every filled in value on a board as part of the puzzle.
+	 */
+	public DancingLinksSolver() {
+		this(false);
+	}
+
+	/**
+	 * Creates a solver.
+	 * @param givensOnly true to ignore values the player has entered and solve from the givens alone, false to use every filled in value.
+	 */
+	public DancingLinksSolver(boolean givensOnly) {
+		this.givensOnly = givensOnly;
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#solve(SudokuBase, int[])
+	 */
+	@Override
+	public boolean solve(SudokuBase board, int[] solution) {
+		if (solution == null || solution.length < board.size * board.size) {
+			throw new IllegalArgumentException("Solution array is too small");
+		}
+		return search(copyBoard(board), solution, 1) == 1;
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#countSolutions(SudokuBase, int)
+	 */
+	@Override
+	public int countSolutions(SudokuBase board, int limit) {
+		checkLimit(limit);
+		return search(copyBoard(board), null, limit);
+	}
+
+	/**
+	 * Solves a puzzle held in a plain array instead of a SudokuBase object.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param puzzle Values of the puzzle, one per cell, row by row, 0 for empty cells.  Not changed.
+	 * @param solution Array the solution is written into (can be the same array as puzzle).
+	 * @return true if a solution was found, false if the puzzle cannot be solved.
+	 */
+	public boolean solve(int layoutRows, int layoutColumns, int[] puzzle, int[] solution) {
+		setLayout(layoutRows, layoutColumns);
+		if (solution == null || solution.length < cellCount) {
+			throw new IllegalArgumentException("Solution array is too small");
+		}
+		return search(puzzle, solution, 1) == 1;
+	}
+
+	/**
+	 * Counts the solutions of a puzzle held in a plain array, stopping once the limit is reached.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param puzzle Values of the puzzle, one per cell, row by row, 0 for empty cells.  Not changed.
+	 * @param limit The most solutions to look for (must be at least 1).
+	 * @return The number of solutions found, from 0 up to and including limit.
+	 */
+	public int countSolutions(int layoutRows, int layoutColumns, int[] puzzle, int limit) {
+		checkLimit(limit);
+		setLayout(layoutRows, layoutColumns);
+		return search(puzzle, null, limit);
+	}
+
+	/*
+	 * Makes sure a solution limit makes sense.
+	 */
+	private void checkLimit(int limit) {
+		if (limit < 1) throw new IllegalArgumentException("Limit out of range: " + limit);
+	}
+
+	/*
+	 * Copies the values of a board into the puzzle array (building the matrix first if the layout changed).
+	 */
+	private int[] copyBoard(SudokuBase board) {
+		setLayout(board.rows, board.columns);
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				boolean use = !givensOnly || board.isGiven(row, col);
+				puzzle[row * size + col] = use ? board.getValue(row, col) : 0;
+			}
+		}
+		return puzzle;
+	}
+
+	/*
+	 * Builds the exact cover matrix for a layout.  Does nothing if it already matches.
+	 */
+	private void setLayout(int layoutRows, int layoutColumns) {
+		if (layoutRows == rows && layoutColumns == columns) return;  // already built for this layout
+		if (layoutRows < 1 || layoutColumns < 1) {
+			throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		}
+		rows = layoutRows;
+		columns = layoutColumns;
+		size = rows * columns;
+		cellCount = size * size;
+
+		int choices = cellCount * size;
+		int headers = CONSTRAINTS * cellCount;
+		int nodes = 1 + headers + CONSTRAINTS * choices;
+		left = new int[nodes];
+		right = new int[nodes];
+		up = new int[nodes];
+		down = new int[nodes];
+		columnOf = new int[nodes];
+		choiceOf = new int[nodes];
+		columnSize = new int[headers + 1];
+		firstNode = new int[choices];
+		covered = new boolean[headers + 1];
+		chosen = new int[cellCount];
+		puzzle = new int[cellCount];
+
+		// link the root and the column headers into one circular list
+		for (int header = 0; header <= headers; header++) {
+			left[header] = header == 0 ? headers : header - 1;
+			right[header] = header == headers ? 0 : header + 1;
+			up[header] = header;
+			down[header] = header;
+			columnOf[header] = header;
+			choiceOf[header] = -1;
+		}
+
+		// add four nodes for every (cell, value) choice
+		int node = headers + 1;
+		for (int cell = 0; cell < cellCount; cell++) {
+			int row = cell / size, col = cell % size;
+			int region = row / rows * rows + col / columns;  // same numbering as SudokuBoard regions
+			for (int value = 0; value < size; value++) {
+				int choice = cell * size + value;
+				int first = node;
+				firstNode[choice] = first;
+				int[] headersForChoice = {
+						1 + cell,
+						1 + cellCount + row * size + value,
+						1 + 2 * cellCount + col * size + value,
+						1 + 3 * cellCount + region * size + value };
+				for (int header : headersForChoice) {
+					// hang the node at the bottom of its column
+					columnOf[node] = header;
+					choiceOf[node] = choice;
+					up[node] = up[header];
+					down[node] = header;
+					down[up[header]] = node;
+					up[header] = node;
+					columnSize[header]++;
+					// and link it into the choice's row
+					left[node] = node == first ? first + CONSTRAINTS - 1 : node - 1;
+					right[node] = node == first + CONSTRAINTS - 1 ? first : node + 1;
+					node++;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Covers the starting values, searches for solutions, then puts the matrix back the way it was.
+	 * Returns the number of solutions found, up to limit.
+	 */
+	private int search(int[] startingValues, int[] solution, int limit) {
+		this.solution = solution;
+		solutionCount = 0;
+		solutionLimit = limit;
+		chosenTop = 0;
+
+		// pick the choice for every starting value, stopping if any of them clash
+		boolean valid = true;
+		for (int cell = 0; cell < cellCount && valid; cell++) {
+			int value = startingValues[cell];
+			if (value == 0) continue;
+			if (value < 0 || value > size) {
+				valid = false;  // out of range, so there is no solution
+				continue;
+			}
+			int first = firstNode[cell * size + value - 1];
+			// a covered column means another starting value already uses this cell, or this value in the same area
+			int node = first;
+			do {
+				if (covered[columnOf[node]]) valid = false;
+				node = right[node];
+			} while (node != first && valid);
+			if (valid) {
+				chosen[chosenTop++] = first;
+				coverRow(first);
+			}
+		}
+
+		if (valid) searchFrom(chosenTop);
+
+		// put the starting values back
+		while (chosenTop > 0) {
+			uncoverRow(chosen[--chosenTop]);
+		}
+		this.solution = null;  // don't hold on to the caller's array
+		return solutionCount;
+	}
+
+	/*
+	 * Algorithm X: pick the column with the fewest nodes, try every row in it.
+	 * Returns true once enough solutions have been found to stop looking.
+	 */
+	private boolean searchFrom(int depth) {
+		// every constraint is covered, so this is a solution
+		if (right[ROOT] == ROOT) {
+			if (solutionCount == 0 && solution != null) {
+				for (int i = 0; i < depth; i++) {
+					int choice = choiceOf[chosen[i]];
+					solution[choice / size] = choice % size + 1;
+				}
+			}
+			solutionCount++;
+			return solutionCount >= solutionLimit;
+		}
+
+		// find the column with the fewest remaining choices
+		int best = right[ROOT];
+		for (int header = right[best]; header != ROOT; header = right[header]) {
+			if (columnSize[header] < columnSize[best]) best = header;
+		}
+		if (columnSize[best] == 0) return false;  // dead end
+
+		cover(best);
+		boolean done = false;
+		for (int node = down[best]; node != best && !done; node = down[node]) {
+			chosen[depth] = node;
+			for (int other = right[node]; other != node; other = right[other]) cover(columnOf[other]);
+			done = searchFrom(depth + 1);
+			for (int other = left[node]; other != node; other = left[other]) uncover(columnOf[other]);
+		}
+		uncover(best);
+		return done;
+	}
+
+	/*
+	 * Covers every column of a chosen row.
+	 */
+	private void coverRow(int first) {
+		int node = first;
+		do {
+			cover(columnOf[node]);
+			node = right[node];
+		} while (node != first);
+	}
+
+	/*
+	 * Uncovers every column of a chosen row, in the opposite order from coverRow.
+	 */
+	private void uncoverRow(int first) {
+		int node = left[first];
+		while (true) {
+			uncover(columnOf[node]);
+			if (node == first) break;
+			node = left[node];
+		}
+	}
+
+	/*
+	 * Takes a column out of the header list, along with every row that has a node in it.
+	 */
+	private void cover(int header) {
+		covered[header] = true;
+		right[left[header]] = right[header];
+		left[right[header]] = left[header];
+		for (int row = down[header]; row != header; row = down[row]) {
+			for (int node = right[row]; node != row; node = right[node]) {
+				down[up[node]] = down[node];
+				up[down[node]] = up[node];
+				columnSize[columnOf[node]]--;
+			}
+		}
+	}
+
+	/*
+	 * Puts a covered column back, exactly reversing cover().
+	 */
+	private void uncover(int header) {
+		for (int row = up[header]; row != header; row = up[row]) {
+			for (int node = left[row]; node != row; node = left[node]) {
+				columnSize[columnOf[node]]++;
+				down[up[node]] = node;
+				up[down[node]] = node;
+			}
+		}
+		right[left[header]] = header;
+		left[right[header]] = header;
+		covered[header] = false;
+	}
+}
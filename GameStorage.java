@@ -0,0 +1,219 @@
+package pratt.dan.sudoku;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;  // data waiting to be written
+import java.nio.channels.FileChannel;  // for adding to the end of a file
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;  // writes waiting to run, by file
+import java.util.concurrent.CompletableFuture;  // results handed back to the caller
+import java.util.concurrent.ExecutorService;  // the I/O thread
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;  // results are handed back on the event thread
+
+/**
+ * Saves and loads games on a background I/O thread, so a slow disk or a network home directory never freezes the window.
+ * <p>
+ * What is saved is copied on the calling thread, so the game can keep changing while the file is written.  If a file is saved again before
+ * an earlier save of it has started, the two are merged into one write of the newer data, and both callers get the same future.
+ * Files are written in the order they were asked for.
+ * <p>
+ * Every future returned by a GameStorage object completes on the Swing event thread, so code chained onto it on the event thread with thenAccept(),
+ * whenComplete() and so on always runs on the event thread, and can update the window and show error dialogs directly.
+ * Methods may be called from any thread.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class GameStorage {
+
+	// Longest time shutdown() waits for queued writes to finish
+	private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+	// The I/O thread.  One thread keeps writes to the same file in order.
+	private final ExecutorService ioThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "Sudoku I/O");
+			thread.setDaemon(true);  // never keep the game from exiting; shutdown() waits for the writes that matter
+			return thread;
+		}
+	});
+
+	// Writes queued but not started yet, by file.  Guarded by this.
+	private final HashMap<File, PendingWrite> pending = new HashMap<File, PendingWrite>();
+
+	/**
+	 * Saves a game in the compact save format.  The board is copied before this returns.
+	 * @param board The game to save.
+	 * @param file The file to save it to.
+	 * @return A future that completes on the event thread once the file is written, or with an IOException if it could not be.
+	 */
+	public CompletableFuture<Void> saveGame(SudokuBase board, File file) {
+		return write(SudokuBase.encode(board), file);
+	}
+
+	/**
+	 * Writes bytes to a file, replacing what was there.  If a write of the same file is still waiting, it writes these bytes instead.
+	 * @param data The bytes to write, from position to limit.  Must not be changed afterwards.
+	 * @param file The file to write.
+	 * @return A future that completes on the event thread once the file is written, or with an IOException if it could not be.
+	 */
+	public CompletableFuture<Void> write(ByteBuffer data, final File file) {
+		synchronized (this) {
+			PendingWrite waiting = pending.get(file);
+			if (waiting != null) {
+				waiting.data = data;  // not started yet, so just write the newer data
+				return waiting.done;
+			}
+			waiting = new PendingWrite(data);
+			pending.put(file, waiting);
+			final PendingWrite write = waiting;
+			try {
+				ioThread.execute(new Runnable() {
+					@Override
+					public void run() {
+						ByteBuffer latest;
+						synchronized (GameStorage.this) {
+							if (pending.get(file) == write) pending.remove(file);  // later saves of this file start a new write
+							latest = write.data;
+						}
+						try {
+							SudokuBase.writeFile(latest, file);
+							completeLater(write.done, null);
+						} catch (IOException e) {
+							failLater(write.done, e);
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				pending.remove(file);
+				return failed(new IOException("Storage has been shut down", e));
+			}
+			return waiting.done;
+		}
+	}
+
+	/**
+	 * Adds bytes to the end of a file, creating it if it is missing.  Runs after every write of the file already asked for,
+	 * and a write of the file asked for afterwards is never merged into one asked for before, so the file ends up in the order things were asked for.
+	 * @param data The bytes to add, from position to limit.  Must not be changed afterwards.
+	 * @param file The file to add them to.
+	 * @return A future that completes on the event thread once the bytes are written, or with an IOException if they could not be.
+	 */
+	public CompletableFuture<Void> append(final ByteBuffer data, final File file) {
+		final CompletableFuture<Void> done = new CompletableFuture<Void>();
+		synchronized (this) {
+			pending.remove(file);  // a write asked for before this must not pick up data asked for after it
+			try {
+				ioThread.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+							try {
+								while (data.hasRemaining()) {
+									out.write(data);
+								}
+							} finally {
+								out.close();
+							}
+							completeLater(done, null);
+						} catch (IOException e) {
+							failLater(done, e);
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				return failed(new IOException("Storage has been shut down", e));
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Loads a saved game, in the compact save format or saved by an older version.
+	 * @param file The file to load.
+	 * @return A future that completes on the event thread with the game, or with an IOException if it could not be loaded.
+	 */
+	public CompletableFuture<SudokuBoard> loadGame(final File file) {
+		final CompletableFuture<SudokuBoard> loaded = new CompletableFuture<SudokuBoard>();
+		try {
+			ioThread.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						completeLater(loaded, SudokuBase.readBoard(file));
+					} catch (IOException e) {
+						failLater(loaded, e);
+					} catch (RuntimeException e) {
+						failLater(loaded, new IOException("File could not be loaded", e));
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			return failed(new IOException("Storage has been shut down", e));
+		}
+		return loaded;
+	}
+
+	/**
+	 * Finishes the writes already asked for, waiting up to ten seconds, then stops the I/O thread.  Call it before the game exits.
+	 * Futures still complete on the event thread, so do not wait for them on the event thread after calling this.
+	 */
+	public void shutdown() {
+		ioThread.shutdown();
+		try {
+			ioThread.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();  // keep the interrupt for the caller
+		}
+	}
+
+	/*
+	 * Completes a future on the event thread.
+	 */
+	private static <T> void completeLater(final CompletableFuture<T> future, final T value) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				future.complete(value);
+			}
+		});
+	}
+
+	/*
+	 * Fails a future on the event thread.
+	 */
+	private static void failLater(final CompletableFuture<?> future, final Throwable error) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				future.completeExceptionally(error);
+			}
+		});
+	}
+
+	/*
+	 * Creates a future that fails on the event thread.
+	 */
+	private static <T> CompletableFuture<T> failed(IOException error) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		failLater(future, error);
+		return future;
+	}
+
+	/*
+	 * A write waiting for the I/O thread.  data is guarded by the storage's lock.
+	 */
+	private static class PendingWrite {
+		ByteBuffer data;  // newest bytes asked for
+		final CompletableFuture<Void> done = new CompletableFuture<Void>();
+
+		PendingWrite(ByteBuffer data) {
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package pratt.dan.sudoku;
+// awt imports
+import java.awt.*;  // for colors, fonts, and drawing
+import java.awt.image.BufferedImage;  // glyphs are drawn once into images
+import java.util.Arrays;  // for clearing the cache
+
+/**
+ * Draws the values shown on the board (numbers or Mayan symbols) once into images and then copies those images onto the screen,
+ * instead of drawing every symbol with lines and ovals each time a cell is painted.
+ * There is one image for each value, in the given and regular colors, at the current cell size.  The images are thrown away when the cell size
+ * or screen scale changes, or when switching between numbers and symbols.
+ * <p>
+ * Mayan symbols are drawn for any value: a bar for each five and a dot for each one left over, and above 19 a second level on top that counts twenties.
+ * A GlyphCache object must only be used on the Swing event thread.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class GlyphCache {
+
+	/* Constants */
+
+	// Colors
+	private static final Color givenColor = new Color(95, 216, 250);  // Color values of givens take on
+	private static final Color artColor = new Color(177, 221, 161); // Color of regular values
+
+	// Fonts used in numeric version
+	private static final Font numeric 	 = new Font("Serif", Font.PLAIN, 18);  // regular inputs
+	private static final Font numericBold = new Font("Serif", Font.BOLD, 18);  // bold given values
+
+	// Stroke for the lines in the Mayan symbols
+	private static final BasicStroke SYMBOL_STROKE = new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_BEVEL);
+
+	/* Fields */
+
+	// What the cached images were drawn for
+	private boolean isNumeric;  // true if the images hold numbers instead of symbols
+	private int width, height;  // cell size the images were drawn for
+	private double scale;  // screen scale the images were drawn for (2.0 on a high resolution screen)
+
+	// The images, two for each value (regular, then given).  null until a value is first drawn.
+	private BufferedImage[] glyphs = new BufferedImage[0];
+
+	/**
+	 * Chooses between numbers and symbols.  Throws away the cached images if the choice changes.
+	 * @param flag true to draw numbers, false to draw Mayan symbols.
+	 */
+	public void setNumeric(boolean flag) {
+		if (flag != isNumeric) {
+			isNumeric = flag;
+			clear();
+		}
+	}
+
+	/**
+	 * Tells if numbers or symbols are drawn.
+	 * @return true if numbers are drawn, false if Mayan symbols are drawn.
+	 */
+	public boolean showsNumeric() {
+		return isNumeric;
+	}
+
+	/**
+	 * Draws a value filling a cell whose top left corner is at (0, 0).  Does nothing for 0 (an empty cell).
+	 * @param g Graphics to draw with.
+	 * @param value The value to draw (0 or more).
+	 * @param given true to draw the value in the given color.
+	 * @param width Width of the cell.
+	 * @param height Height of the cell.
+	 */
+	public void draw(Graphics g, int value, boolean given, int width, int height) {
+		if (value <= 0 || width <= 0 || height <= 0) return;
+		double scale = ((Graphics2D)g).getTransform().getScaleX();  // draw the images at full screen resolution
+		if (width != this.width || height != this.height || scale != this.scale) {
+			// the cell changed size, so none of the images fit any more
+			clear();
+			this.width = width;
+			this.height = height;
+			this.scale = scale;
+		}
+		int index = value * 2 + (given ? 1 : 0);
+		if (index >= glyphs.length) {
+			BufferedImage[] larger = new BufferedImage[index + 2];
+			System.arraycopy(glyphs, 0, larger, 0, glyphs.length);
+			glyphs = larger;
+		}
+		if (glyphs[index] == null) glyphs[index] = render(value, given);
+		g.drawImage(glyphs[index], 0, 0, width, height, null);
+	}
+
+	/**
+	 * Throws away every cached image.  They are drawn again the next time they are needed.
+	 */
+	public void clear() {
+		Arrays.fill(glyphs, null);
+	}
+
+	/*
+	 * Draws one value into a new see-through image the size of a cell.
+	 */
+	private BufferedImage render(int value, boolean given) {
+		BufferedImage image = new BufferedImage((int)Math.ceil(width * scale), (int)Math.ceil(height * scale), BufferedImage.TYPE_INT_ARGB_PRE);
+		Graphics2D g2D = image.createGraphics();
+		g2D.scale(scale, scale);
+		g2D.setColor(given ? givenColor : artColor);  // set color based on if it is given or not
+		if (isNumeric) {
+			g2D.setFont(given ? numericBold : numeric);  // bold for givens
+			g2D.drawString(String.valueOf(value), width / 2 - width / 10, height / 2 + height / 8);  // draw the number inside the cell
+		} else {
+			g2D.setStroke(SYMBOL_STROKE);
+			drawSymbol(g2D, value, width, height);
+		}
+		g2D.dispose();
+		return image;
+	}
+
+	/*
+	 * Draws the Mayan symbol for a value.  Values of 20 and up get a second, smaller level on top that counts the twenties.
+	 */
+	private static void drawSymbol(Graphics2D g2D, int value, int width, int height) {
+		if (value < 20) {
+			drawDigit(g2D, value, width, height);
+			return;
+		}
+		// twenties shrunk into the top of the cell, the rest shrunk into the bottom
+		Graphics2D upper = (Graphics2D)g2D.create();
+		upper.translate(width * 0.3, 0);
+		upper.scale(0.4, 0.4);
+		drawDigit(upper, value / 20, width, height);
+		upper.dispose();
+		Graphics2D lower = (Graphics2D)g2D.create();
+		lower.translate(width * 0.2, height * 0.4);
+		lower.scale(0.6, 0.6);
+		drawDigit(lower, value % 20, width, height);
+		lower.dispose();
+	}
+
+	/*
+	 * Draws one Mayan digit (0 - 19): a bar for each five and a dot for each one left over, dots sitting above the bars.  0 is drawn as a shell.
+	 */
+	private static void drawDigit(Graphics2D g2D, int digit, int width, int height) {
+		if (digit == 0) {
+			g2D.drawOval(width / 2 - width / 5, height / 2 - height / 8, width * 2 / 5, height / 4);  // draw the shell
+			return;
+		}
+		int bars = digit / 5, dots = digit % 5;
+
+		// draw the bars, the first in the middle and more below it (a third one goes above)
+		int topBar = height / 2;
+		if (bars >= 1) g2D.drawLine(width / 6, height / 2, width - width / 6, height / 2);  // draw the line
+		if (bars >= 2) g2D.drawLine(width / 6, height / 2 + height / 6, width - width / 6, height / 2 + height / 6);  // draw the bottom line
+		if (bars >= 3) {
+			topBar = height / 2 - height / 6;
+			g2D.drawLine(width / 6, topBar, width - width / 6, topBar);  // draw the top line
+		}
+
+		// draw the dots, above the bars if there are any
+		int top;
+		if (bars > 0) {
+			top = topBar - height / 4;
+		} else if (dots == 1) {
+			top = height / 2 - height / 12;  // a lone dot sits right in the middle
+		} else {
+			top = height / 2 - height / 14;
+		}
+		int dotWidth = width / 6, dotHeight = height / 6;
+		switch (dots) {
+		case 1:
+			g2D.fillOval(width / 2 - width / 12, top, dotWidth, dotHeight);  // draw the dot
+			break;
+		case 2:
+			g2D.fillOval(width / 2 - width / 5, top, dotWidth, dotHeight);  // draw the first dot
+			g2D.fillOval(width / 2, top, dotWidth, dotHeight);  // draw the second dot
+			break;
+		case 3:
+			g2D.fillOval(width / 5, top, dotWidth, dotHeight);  // draw the first dot
+			g2D.fillOval(width / 2 - width / 12, top, dotWidth, dotHeight);  // draw the second dot
+			g2D.fillOval(width / 2 + width / 6, top, dotWidth, dotHeight);  // draw the third dot
+			break;
+		case 4:
+			g2D.fillOval(width / 8, top, dotWidth, dotHeight);  // draw the first dot
+			g2D.fillOval(width / 2 - width / 5, top, dotWidth, dotHeight);  // draw the second dot
+			g2D.fillOval(width / 2, top, dotWidth, dotHeight);  // draw the third dot
+			g2D.fillOval(width / 2 + width / 5, top, dotWidth, dotHeight);  // draw the fourth dot
+			break;
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package pratt.dan.sudoku;
+import java.io.*;  // for file operations
+import java.nio.ByteBuffer;  // for checking the line break after the first record
+import java.nio.MappedByteBuffer;  // puzzles are read straight out of the mapped file
+import java.nio.channels.FileChannel;  // for mapping the file
+import java.util.Arrays;  // for filling the lookup table
+
+/**
+ * Reads a large file of fixed width puzzle records by memory mapping it, so no String or char[] is created for each puzzle.
+ * Every record is one character per cell, row by row (1-9 then A-Z for values, 0 or . for empty cells), followed by a line break (\n or \r\n).
+ * For 3 x 3 layouts this is the common 81 character format.
+ * <p>
+ * The file is mapped a window at a time, so files larger than 2 GB can be read.  split() divides the records into ranges so several threads can each read their own part of the file.
+ * A reader object itself must only be used by one thread.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class MappedPuzzleReader implements Closeable {
+
+	// Largest part of the file mapped at one time
+	private static final long WINDOW_BYTES = 64L << 20;
+	// Value of every possible byte, -1 for bytes that cannot appear in a puzzle
+	private static final int[] VALUES = new int[256];
+	static {
+		Arrays.fill(VALUES, -1);
+		VALUES['.'] = 0;
+		for (int c = '0'; c <= '9'; c++) VALUES[c] = c - '0';
+		for (int c = 'A'; c <= 'Z'; c++) VALUES[c] = c - 'A' + 10;
+		for (int c = 'a'; c <= 'z'; c++) VALUES[c] = c - 'a' + 10;
+	}
+
+	/** Number of rows in each region of the puzzles in the file. */
+	public final int rows;
+	/** Number of columns in each region of the puzzles in the file. */
+	public final int columns;
+	/** Number of values in a row, column, or region (rows * columns). */
+	public final int size;
+
+	// The file, shared by readers made with split()
+	private final FileChannel channel;
+	private final boolean ownsChannel;  // only the reader that opened the file closes it
+	private final int recordLength;  // bytes per record, including the line break
+
+	// Range of records this reader covers, and where it is in that range
+	private final long firstRecord, endRecord;
+	private long nextRecord;
+
+	// Part of the file that is currently mapped
+	private MappedByteBuffer window;
+	private long windowFirstRecord, windowEndRecord;
+
+	/**
+	 * Opens a puzzle file for reading.
+	 * @param file File to read.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @throws IOException if the file cannot be opened or does not hold fixed width records of the right length.
+	 */
+	public MappedPuzzleReader(File file, int layoutRows, int layoutColumns) throws IOException {
+		if (layoutRows < 1 || layoutColumns < 1 || layoutRows * layoutColumns > 35) {
+			throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		}
+		rows = layoutRows;
+		columns = layoutColumns;
+		size = rows * columns;
+		channel = new RandomAccessFile(file, "r").getChannel();
+		ownsChannel = true;
+
+		// find the line break after the first record to learn the record length
+		int cellCount = size * size;
+		long fileLength = channel.size();
+		int lineBreak;
+		if (fileLength <= cellCount) {
+			lineBreak = 1;  // at most one record, with or without a line break
+		} else {
+			ByteBuffer probe = ByteBuffer.allocate(2);
+			int read = channel.read(probe, cellCount);
+			if (probe.get(0) == '\n') {
+				lineBreak = 1;
+			} else if (probe.get(0) == '\r' && read > 1 && probe.get(1) == '\n') {
+				lineBreak = 2;
+			} else {
+				channel.close();
+				throw new IOException("Records are not " + cellCount + " characters long");
+			}
+		}
+		recordLength = cellCount + lineBreak;
+		// the last record may be missing its line break
+		firstRecord = 0;
+		endRecord = (fileLength + lineBreak) / recordLength;
+		nextRecord = 0;
+	}
+
+	/*
+	 * Creates a reader for part of a file that is already open.
+	 */
+	private MappedPuzzleReader(MappedPuzzleReader whole, long firstRecord, long endRecord) {
+		rows = whole.rows;
+		columns = whole.columns;
+		size = whole.size;
+		channel = whole.channel;
+		ownsChannel = false;
+		recordLength = whole.recordLength;
+		this.firstRecord = firstRecord;
+		this.endRecord = endRecord;
+		nextRecord = firstRecord;
+	}
+
+	/**
+	 * Divides the records this reader covers into separate readers, one for each thread.  The parts are in file order and do not overlap.
+	 * Closing the original reader closes the file for all of them.
+	 * @param parts Number of readers to create (must be at least 1).
+	 * @return Readers that together cover the same records as this one.
+	 */
+	public MappedPuzzleReader[] split(int parts) {
+		if (parts < 1) throw new IllegalArgumentException("Parts out of range: " + parts);
+		MappedPuzzleReader[] readers = new MappedPuzzleReader[parts];
+		long count = endRecord - firstRecord;
+		for (int i = 0; i < parts; i++) {
+			long start = firstRecord + count * i / parts;
+			long end = firstRecord + count * (i + 1) / parts;
+			readers[i] = new MappedPuzzleReader(this, start, end);
+		}
+		return readers;
+	}
+
+	/**
+	 * Gets the number of the first record this reader covers.
+	 * @return Record number (counting from 0) of the first record in this reader's range.
+	 */
+	public long getFirstRecord() {
+		return firstRecord;
+	}
+
+	/**
+	 * Gets the number of records this reader covers.
+	 * @return Number of puzzles in this reader's range.
+	 */
+	public long getPuzzleCount() {
+		return endRecord - firstRecord;
+	}
+
+	/**
+	 * Gets the length of each record in the file.
+	 * @return Bytes per record, including the line break.
+	 */
+	public int getRecordLength() {
+		return recordLength;
+	}
+
+	/**
+	 * Checks if there are records left to read.
+	 * @return true if next() will return another puzzle.
+	 */
+	public boolean hasNext() {
+		return nextRecord < endRecord;
+	}
+
+	/**
+	 * Reads the next puzzle into an array.
+	 * Precondition: hasNext() is true.
+	 * @param cells Array (at least size * size long) the values are written into, one per cell, row by row, 0 for empty cells.
+	 * @throws IOException if the record holds something other than a puzzle (the record is skipped), or the file cannot be mapped.
+	 */
+	public void next(int[] cells) throws IOException {
+		if (!hasNext()) throw new IllegalStateException("No more puzzles");
+		long record = nextRecord++;  // move on even if this record turns out to be bad
+		int offset = mapRecord(record);
+		int cellCount = size * size;
+		for (int cell = 0; cell < cellCount; cell++) {
+			int value = VALUES[window.get(offset + cell) & 0xFF];
+			if (value < 0 || value > size) {
+				throw new IOException("Record " + record + " is not a valid puzzle");
+			}
+			cells[cell] = value;
+		}
+	}
+
+	/**
+	 * Reads the next puzzle onto a board, replacing everything on it.  The values read are fixed as givens.
+	 * Precondition: hasNext() is true, and the board has the same layout as the file.
+	 * @param board The board to load the puzzle onto.
+	 * @throws IOException if the record holds something other than a puzzle (the record is skipped), or the file cannot be mapped.
+	 */
+	public void next(SudokuBase board) throws IOException {
+		if (board.rows != rows || board.columns != columns) {
+			throw new IllegalArgumentException("Board layout does not match file");
+		}
+		if (!hasNext()) throw new IllegalStateException("No more puzzles");
+		long record = nextRecord++;  // move on even if this record turns out to be bad
+		int offset = mapRecord(record);
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int value = VALUES[window.get(offset + row * size + col) & 0xFF];
+				if (value < 0 || value > size) {
+					throw new IOException("Record " + record + " is not a valid puzzle");
+				}
+				board.setRawValue(row, col, value);
+			}
+		}
+		board.fixGivens();
+	}
+
+	/**
+	 * Closes the file if this reader opened it.  Readers made by split() do not close the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		window = null;
+		if (ownsChannel) channel.close();
+	}
+
+	/*
+	 * Makes sure a record is inside the mapped window (mapping the next window if it is not) and returns where the record starts in the window.
+	 */
+	private int mapRecord(long record) throws IOException {
+		if (window == null || record < windowFirstRecord || record >= windowEndRecord) {
+			long recordsPerWindow = Math.max(1, WINDOW_BYTES / recordLength);
+			windowFirstRecord = record;
+			windowEndRecord = Math.min(endRecord, record + recordsPerWindow);
+			long start = windowFirstRecord * recordLength;
+			long length = Math.min(channel.size(), windowEndRecord * recordLength) - start;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+		return (int) ((record - windowFirstRecord) * recordLength);
+	}
+}
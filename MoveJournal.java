@@ -0,0 +1,224 @@
+package pratt.dan.sudoku;
+
+/**
+ * Keeps the moves made on a board so they can be undone and redone.  Each move is packed into a single long (cell index, old value, new value,
+ * and a flag marking the first move of a group), and the moves are kept in a ring of longs, so recording a move creates no objects.
+ * <p>
+ * The ring starts small and doubles as moves are recorded, up to a set number of moves.  Once it is full, each new move pushes out the oldest step,
+ * so a long game never holds more than that.  A single step with more moves than that cannot be undone.
+ * Recording a new move throws away the moves that could have been redone.
+ * A MoveJournal object must only be used by one thread at a time.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class MoveJournal {
+
+	/** Number of moves kept when no limit is given. */
+	public static final int DEFAULT_LIMIT = 1 << 16;
+
+	// Size of the ring before the first time it grows
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Layout of a packed move: group flag, then cell index, old value, new value
+	private static final long GROUP_START = 1L << 62;  // set on the first move of each undo step
+	private static final int VALUE_BITS = 12;  // enough for any value below GIVEN_MASK
+	private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+	private static final long CELL_MASK = (1L << 32) - 1;
+
+	// The ring.  Moves run from head (oldest) for count moves, wrapping around the end of the array.
+	private long[] moves = new long[INITIAL_CAPACITY];
+	private int head;  // position of the oldest move
+	private int count;  // number of moves held, both undoable and redoable
+	private int undoable;  // the first undoable moves can be undone; the rest can be redone
+	private int limit;  // most moves held
+	private boolean discarding;  // true while the rest of a step too big to hold is being thrown away
+
+	/**
+	 * Creates an empty journal that holds up to DEFAULT_LIMIT moves.
+	 */
+	public MoveJournal() {
+		this(DEFAULT_LIMIT);
+	}
+
+	/**
+	 * Creates an empty journal.
+	 * @param limit Most moves to hold (at least 1).
+	 */
+	public MoveJournal(int limit) {
+		setLimit(limit);
+	}
+
+	/**
+	 * Changes the number of moves held.  If there are more moves than that, the oldest are dropped.
+	 * @param limit Most moves to hold (at least 1).
+	 */
+	public void setLimit(int limit) {
+		if (limit < 1) throw new IllegalArgumentException("Limit out of range: " + limit);
+		this.limit = limit;
+		while (count > limit) {
+			dropOldestStep();
+		}
+		if (moves.length > limit) resize(limit);
+	}
+
+	/**
+	 * Gets the number of moves held.
+	 * @return Most moves held.
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Records a move, throwing away any moves that could have been redone.
+	 * @param cell Index of the cell (row * size + col).
+	 * @param oldValue Value before the move.
+	 * @param newValue Value after the move.
+	 * @param startsGroup true if this move starts a new undo step, false to undo and redo it together with the move before it.
+	 */
+	public void record(int cell, int oldValue, int newValue, boolean startsGroup) {
+		if (discarding && !startsGroup) return;  // still in a step that did not fit
+		discarding = false;
+		count = undoable;  // no redo after a new move
+		if (count == moves.length) {
+			if (moves.length < limit) {
+				resize((int) Math.min(limit, moves.length * 2L));
+			} else {
+				// full, so push out the oldest step.  If that was the start of this one, this step is too big to keep.
+				dropOldestStep();
+				if (count == 0 && !startsGroup) {
+					discarding = true;
+					return;
+				}
+			}
+		}
+		long move = ((long) cell << (2 * VALUE_BITS)) | ((oldValue & VALUE_MASK) << VALUE_BITS) | (newValue & VALUE_MASK);
+		if (startsGroup || undoable == 0) move |= GROUP_START;
+		moves[wrap(head + count)] = move;
+		count++;
+		undoable++;
+	}
+
+	/**
+	 * Tells if there is a move to undo.
+	 * @return true if undo() can be called.
+	 */
+	public boolean canUndo() {
+		return undoable > 0;
+	}
+
+	/**
+	 * Tells if there is a move to redo.
+	 * @return true if redo() can be called.
+	 */
+	public boolean canRedo() {
+		return undoable < count;
+	}
+
+	/**
+	 * Takes back the newest undoable move.  Call it again until startsGroup() is true for the move it returns to undo a whole step.
+	 * @return The packed move, to be read with cell(), oldValue(), newValue() and startsGroup().
+	 */
+	public long undo() {
+		if (undoable == 0) throw new IllegalStateException("Nothing to undo");
+		undoable--;
+		return moves[wrap(head + undoable)];
+	}
+
+	/**
+	 * Makes the oldest redoable move again.  Call it again while nextRedoStartsGroup() is false to redo a whole step.
+	 * @return The packed move, to be read with cell(), oldValue(), newValue() and startsGroup().
+	 */
+	public long redo() {
+		if (undoable == count) throw new IllegalStateException("Nothing to redo");
+		long move = moves[wrap(head + undoable)];
+		undoable++;
+		return move;
+	}
+
+	/**
+	 * Tells if the next redo() would start a new step (or there is nothing left to redo).
+	 * @return true if the step being redone is finished.
+	 */
+	public boolean nextRedoStartsGroup() {
+		return undoable == count || startsGroup(moves[wrap(head + undoable)]);
+	}
+
+	/**
+	 * Forgets every move.  Keeps the memory already taken.
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+		undoable = 0;
+		discarding = false;
+	}
+
+	/**
+	 * Gets the cell a packed move changed.
+	 * @param move A move returned by undo() or redo().
+	 * @return Index of the cell (row * size + col).
+	 */
+	public static int cell(long move) {
+		return (int) ((move >>> (2 * VALUE_BITS)) & CELL_MASK);
+	}
+
+	/**
+	 * Gets the value a cell held before a packed move.
+	 * @param move A move returned by undo() or redo().
+	 * @return Value before the move.
+	 */
+	public static int oldValue(long move) {
+		return (int) ((move >>> VALUE_BITS) & VALUE_MASK);
+	}
+
+	/**
+	 * Gets the value a cell held after a packed move.
+	 * @param move A move returned by undo() or redo().
+	 * @return Value after the move.
+	 */
+	public static int newValue(long move) {
+		return (int) (move & VALUE_MASK);
+	}
+
+	/**
+	 * Tells if a packed move is the first move of its undo step.
+	 * @param move A move returned by undo() or redo().
+	 * @return true if the move starts a step.
+	 */
+	public static boolean startsGroup(long move) {
+		return (move & GROUP_START) != 0;
+	}
+
+	/*
+	 * Forgets the oldest step, every move of it, so undo never stops part way through a step.
+	 */
+	private void dropOldestStep() {
+		int dropped = 0;
+		do {
+			head = wrap(head + 1);
+			count--;
+			dropped++;
+		} while (count > 0 && !startsGroup(moves[head]));
+		undoable = Math.max(0, undoable - dropped);
+	}
+
+	/*
+	 * Turns a position past the end of the ring back into an array index.
+	 */
+	private int wrap(int position) {
+		return position >= moves.length ? position - moves.length : position;
+	}
+
+	/*
+	 * Moves the held moves into a new array of the given size, oldest first.
+	 */
+	private void resize(int capacity) {
+		long[] resized = new long[capacity];
+		for (int i = 0; i < count; i++) {
+			resized[i] = moves[wrap(head + i)];
+		}
+		moves = resized;
+		head = 0;
+	}
+}
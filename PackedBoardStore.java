@@ -0,0 +1,284 @@
+package pratt.dan.sudoku;
+import java.io.ObjectStreamException;  // for saving a view as an ordinary board
+import java.nio.ByteBuffer;  // off-heap storage
+import java.nio.ByteOrder;
+
+/**
+ * Holds a large number of boards of one layout packed tightly into direct (off-heap) memory, for solution archives, puzzle pools, and batch jobs
+ * that keep millions of boards around.  Each cell takes 4 bits (boards up to 15 x 15), 5 bits (up to 31 x 31) or 6 bits (up to 63 x 63), plus 1 bit
+ * in a bitmap of givens.  A 9 x 9 board takes 64 bytes, against well over a kilobyte for a SudokuBoard with its unit counts.
+ * <p>
+ * Boards are read and changed through BoardView objects, small SudokuBase objects that keep no values of their own and point into the store.
+ * One view can be moved from board to board with moveTo(), so a whole store can be scanned without creating an object per board.
+ * <p>
+ * Memory is taken in chunks of up to 1 GB as boards are added, so a store can hold more than 2 GB of boards.
+ * Different boards may be read and changed from different threads at the same time, but adding boards must not overlap with anything else.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class PackedBoardStore {
+
+	// Largest chunk of memory taken at one time
+	private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+	/** Number of rows in each region of the boards in the store. */
+	public final int rows;
+	/** Number of columns in each region of the boards in the store. */
+	public final int columns;
+	/** Number of values in a row, column, or region (rows * columns). */
+	public final int size;
+
+	// Layout of one board: value words, then given bitmap words, each word a long
+	private final int bitsPerValue;  // bits each cell takes
+	private final int valuesPerWord;  // cells packed in each long (a cell never spans two longs)
+	private final long valueMask;  // mask for one cell's bits
+	private final int valueWords, givenWords;  // longs for values and for the given bitmap
+	private final int boardBytes;  // bytes between one board and the next
+
+	// Storage
+	private final int capacity;  // most boards the store can hold
+	private final int boardsPerChunk;
+	private final ByteBuffer[] chunks;  // created as they are needed
+	private int count;  // number of boards added so far
+
+	/**
+	 * Creates an empty store.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param capacity Most boards the store will hold.  Memory is only taken as boards are added.
+	 */
+	public PackedBoardStore(int layoutRows, int layoutColumns, int capacity) {
+		if (layoutRows < 1 || layoutColumns < 1 || layoutRows * layoutColumns > 63) {
+			throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		}
+		if (capacity < 0) throw new IllegalArgumentException("Capacity out of range: " + capacity);
+		rows = layoutRows;
+		columns = layoutColumns;
+		size = rows * columns;
+		int cells = size * size;
+		bitsPerValue = Math.max(4, 32 - Integer.numberOfLeadingZeros(size));
+		valuesPerWord = 64 / bitsPerValue;
+		valueMask = (1L << bitsPerValue) - 1;
+		valueWords = (cells + valuesPerWord - 1) / valuesPerWord;
+		givenWords = (cells + 63) / 64;
+		boardBytes = (valueWords + givenWords) * 8;
+		this.capacity = capacity;
+		boardsPerChunk = MAX_CHUNK_BYTES / boardBytes;
+		chunks = new ByteBuffer[(int)(((long)capacity + boardsPerChunk - 1) / boardsPerChunk)];
+	}
+
+	/**
+	 * Copies a board into the store.
+	 * @param board Board with the same layout as the store.
+	 * @return The number of the new board in the store.
+	 */
+	public int add(SudokuBase board) {
+		if (board.rows != rows || board.columns != columns) {
+			throw new IllegalArgumentException("Board layout does not match store");
+		}
+		int index = addEmpty();
+		ByteBuffer chunk = chunkFor(index);
+		int base = offsetOf(index);
+		for (int cell = 0; cell < size * size; cell++) {
+			writeCell(chunk, base, cell, board.readCell(cell));
+		}
+		return index;
+	}
+
+	/**
+	 * Copies the values of a board into the store.  None of them are givens.
+	 * @param values One value per cell, row by row, 0 for empty cells (at least size * size long).
+	 * @return The number of the new board in the store.
+	 */
+	public int add(int[] values) {
+		if (values.length < size * size) throw new IllegalArgumentException("Values array is too small");
+		int index = addEmpty();
+		ByteBuffer chunk = chunkFor(index);
+		int base = offsetOf(index);
+		for (int cell = 0; cell < size * size; cell++) {
+			if (values[cell] < 0 || values[cell] > size) throw new IllegalArgumentException("Value out of range: " + values[cell]);
+			writeCell(chunk, base, cell, values[cell]);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the number of boards in the store.
+	 * @return Number of boards added so far.
+	 */
+	public int getBoardCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of bytes each board takes in the store.
+	 * @return Bytes per board.
+	 */
+	public int getBoardBytes() {
+		return boardBytes;
+	}
+
+	/**
+	 * Gets the off-heap memory the store has taken so far.
+	 * @return Number of bytes in the chunks created so far.
+	 */
+	public long getMemoryUsed() {
+		long bytes = 0;
+		for (ByteBuffer chunk : chunks) {
+			if (chunk != null) bytes += chunk.capacity();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Creates a view of a board in the store.  Changes made through the view go straight into the store.
+	 * @param index Number of the board (0 up to but not including getBoardCount()).
+	 * @return A new view pointing at the board.
+	 */
+	public BoardView view(int index) {
+		BoardView view = new BoardView(this);
+		view.moveTo(index);
+		return view;
+	}
+
+	/*
+	 * Takes the next board slot (all cells empty, since new chunks are zeroed) and returns its number.
+	 */
+	private int addEmpty() {
+		if (count == capacity) throw new IllegalStateException("Store is full: " + capacity + " boards");
+		int index = count;
+		int chunk = index / boardsPerChunk;
+		if (chunks[chunk] == null) {
+			int boards = Math.min(boardsPerChunk, capacity - chunk * boardsPerChunk);
+			chunks[chunk] = ByteBuffer.allocateDirect(boards * boardBytes).order(ByteOrder.nativeOrder());
+		}
+		count++;
+		return index;
+	}
+
+	/*
+	 * Finds the chunk holding a board.
+	 */
+	private ByteBuffer chunkFor(int index) {
+		return chunks[index / boardsPerChunk];
+	}
+
+	/*
+	 * Finds where a board starts inside its chunk.
+	 */
+	private int offsetOf(int index) {
+		return (index % boardsPerChunk) * boardBytes;
+	}
+
+	/*
+	 * Reads a cell in the raw form SudokuBase uses (value, with GIVEN_MASK set for givens).
+	 */
+	private int readCell(ByteBuffer chunk, int base, int cell) {
+		long word = chunk.getLong(base + (cell / valuesPerWord) * 8);
+		int value = (int)((word >>> ((cell % valuesPerWord) * bitsPerValue)) & valueMask);
+		long givens = chunk.getLong(base + (valueWords + (cell >>> 6)) * 8);
+		return ((givens >>> cell) & 1) != 0 ? value | SudokuBase.GIVEN_MASK : value;
+	}
+
+	/*
+	 * Writes a cell in the raw form SudokuBase uses (see readCell).
+	 */
+	private void writeCell(ByteBuffer chunk, int base, int cell, int raw) {
+		int valueAt = base + (cell / valuesPerWord) * 8;
+		int shift = (cell % valuesPerWord) * bitsPerValue;
+		long word = chunk.getLong(valueAt);
+		chunk.putLong(valueAt, (word & ~(valueMask << shift)) | ((raw & valueMask) << shift));
+		int givenAt = base + (valueWords + (cell >>> 6)) * 8;
+		long givens = chunk.getLong(givenAt);
+		long bit = 1L << cell;  // shift distance is taken mod 64
+		chunk.putLong(givenAt, (raw & SudokuBase.GIVEN_MASK) != 0 ? givens | bit : givens & ~bit);
+	}
+
+	/**
+	 * A board in a PackedBoardStore, seen as a SudokuBase.  Holds no values itself; every read and write goes to the store.
+	 * Row, column and region states are worked out by looking at the cells each time they are asked for, since a view keeps no counts.
+	 * Saving a view with Java serialization saves an ordinary SudokuBoard copy of the board.
+	 */
+	public static class BoardView extends SudokuBase {
+		private static final long serialVersionUID = 1L;
+
+		private final transient PackedBoardStore store;
+		private transient ByteBuffer chunk;  // chunk holding the current board
+		private transient int base;  // where the current board starts in the chunk
+		private int index;  // number of the current board
+
+		/*
+		 * Creates a view that is not yet pointing at a board.
+		 */
+		BoardView(PackedBoardStore store) {
+			super(store.rows, store.columns, false);
+			this.store = store;
+		}
+
+		/**
+		 * Points the view at another board in the same store.  Listeners and observers stay attached.
+		 * The undo history is cleared, since its moves were made on the board left behind.
+		 * @param index Number of the board (0 up to but not including getBoardCount()).
+		 */
+		public void moveTo(int index) {
+			if (index < 0 || index >= store.count) throw new IllegalArgumentException("Board out of range: " + index);
+			this.index = index;
+			chunk = store.chunkFor(index);
+			base = store.offsetOf(index);
+			clearHistory();  // undo must never change another board
+		}
+
+		/**
+		 * Gets the number of the board the view points at.
+		 * @return Board number in the store.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		@Override
+		int readCell(int cell) {
+			return store.readCell(chunk, base, cell);
+		}
+
+		@Override
+		void writeCell(int cell, int raw) {
+			store.writeCell(chunk, base, cell, raw);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public State getRowState(int n) {
+			return scanState(Type.ROW, n);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public State getColumnState(int n) {
+			return scanState(Type.COLUMN, n);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public State getRegionState(int n) {
+			return scanState(Type.REGION, n);
+		}
+
+		/*
+		 * Saves an ordinary board instead of the view, since the store itself cannot be saved.
+		 */
+		private Object writeReplace() throws ObjectStreamException {
+			try {
+				return decode(encode(this));
+			} catch (java.io.IOException e) {
+				throw new java.io.InvalidObjectException(e.getMessage());
+			}
+		}
+	}
+}
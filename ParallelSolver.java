@@ -0,0 +1,194 @@
+package pratt.dan.sudoku;
+import java.util.concurrent.ForkJoinPool;  // work stealing thread pool
+import java.util.concurrent.RecursiveAction;  // for splitting the search into tasks
+import java.util.concurrent.atomic.AtomicBoolean;  // for calling off the other tasks
+import java.util.concurrent.atomic.AtomicInteger;  // for counting solutions across tasks
+
+/**
+ * Solves large boards (such as 25 x 25 and 36 x 36) on several threads at once.
+ * The search is split at the empty cell with the fewest possible values: every possible value becomes its own task with its own copy of the board,
+ * and the tasks are run on a work stealing ForkJoinPool.  Branches near the top of the search are split again; deeper ones are finished by a CandidateSolver.
+ * Once enough solutions have been found, every other task gives up.
+ *
+ * Each thread in the pool keeps its own CandidateSolver, so a ParallelSolver object can be shared between threads.
+ * Call shutdown() when the solver is no longer needed.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class ParallelSolver implements SudokuSolver {
+
+	// Flag variables
+	private final boolean givensOnly;  // if true, values the player entered are ignored and only givens are used as the starting point
+
+	// Thread pool and the per-thread solvers that work inside it
+	private final ForkJoinPool pool;
+	private final int splitDepth;  // how many levels of the search are split into separate tasks
+	private final ThreadLocal<CandidateSolver> solvers = new ThreadLocal<CandidateSolver>() {
+		@Override
+		protected CandidateSolver initialValue() {
+			return new CandidateSolver();
+		}
+	};
+
+	/**
+	 * Creates a solver that uses every available processor and every filled in value on a board.
+	 */
+	public ParallelSolver() {
+		this(Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * Creates a solver.
+	 * @param parallelism Number of threads to solve with (must be at least 1).
+	 * @param givensOnly true to ignore values the player has entered and solve from the givens alone, false to use every filled in value.
+	 */
+	public ParallelSolver(int parallelism, boolean givensOnly) {
+		if (parallelism < 1) throw new IllegalArgumentException("Parallelism out of range: " + parallelism);
+		this.givensOnly = givensOnly;
+		pool = new ForkJoinPool(parallelism);
+		// split deep enough to give each thread plenty of tasks to steal (each split makes at least two branches)
+		splitDepth = 32 - Integer.numberOfLeadingZeros(parallelism * 8);
+	}
+
+	/**
+	 * Gets the number of threads this solver uses.
+	 * @return The parallelism level of the thread pool.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Stops the thread pool.  The solver cannot be used after this is called.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#solve(SudokuBase, int[])
+	 */
+	@Override
+	public boolean solve(SudokuBase board, int[] solution) {
+		if (solution == null || solution.length < board.size * board.size) {
+			throw new IllegalArgumentException("Solution array is too small");
+		}
+		return search(board, solution, 1) == 1;
+	}
+
+	/* (non-Javadoc)
+	 * @see SudokuSolver#countSolutions(SudokuBase, int)
+	 */
+	@Override
+	public int countSolutions(SudokuBase board, int limit) {
+		if (limit < 1) throw new IllegalArgumentException("Limit out of range: " + limit);
+		return search(board, null, limit);
+	}
+
+	/*
+	 * Copies the board, runs the search on the pool, and returns the number of solutions found (up to limit).
+	 */
+	private int search(SudokuBase board, int[] solution, int limit) {
+		if (board.size > CandidateSolver.MAX_SIZE) {
+			throw new IllegalArgumentException("Layout not supported: " + board.rows + " x " + board.columns);
+		}
+		int[] puzzle = new int[board.size * board.size];
+		for (int row = 0; row < board.size; row++) {
+			for (int col = 0; col < board.size; col++) {
+				boolean use = !givensOnly || board.isGiven(row, col);
+				puzzle[row * board.size + col] = use ? board.getValue(row, col) : 0;
+			}
+		}
+		Search search = new Search(board.rows, board.columns, solution, limit);
+		pool.invoke(new BranchTask(search, puzzle, 0));
+		return Math.min(search.found.get(), limit);
+	}
+
+	/*
+	 * Everything the tasks of one search share.
+	 */
+	private static class Search {
+		final int rows, columns;  // layout of the board being solved
+		final int[] solution;  // where the first solution is written, can be null when only counting
+		final int limit;  // stop once this many solutions are found
+		final AtomicInteger found = new AtomicInteger();  // solutions found so far
+		final AtomicBoolean solutionWritten = new AtomicBoolean();  // set by the first task to write a solution
+		final AtomicBoolean stop = new AtomicBoolean();  // set once enough solutions are found
+
+		Search(int rows, int columns, int[] solution, int limit) {
+			this.rows = rows;
+			this.columns = columns;
+			this.solution = solution;
+			this.limit = limit;
+		}
+
+		/*
+		 * Records solutions found by a task, copying the first one found into the caller's array.
+		 */
+		void record(int count, int[] values) {
+			if (count == 0) return;
+			if (solution != null && solutionWritten.compareAndSet(false, true)) {
+				System.arraycopy(values, 0, solution, 0, values.length);
+			}
+			if (found.addAndGet(count) >= limit) stop.set(true);
+		}
+	}
+
+	/*
+	 * Solves one branch of the search: either splits it further or hands it to this thread's CandidateSolver.
+	 */
+	private class BranchTask extends RecursiveAction {
+		private final Search search;
+		private final int[] puzzle;  // this branch's own copy of the board
+		private final int depth;  // number of splits above this branch
+
+		BranchTask(Search search, int[] puzzle, int depth) {
+			this.search = search;
+			this.puzzle = puzzle;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			if (search.stop.get()) return;  // enough solutions already, don't bother
+			CandidateSolver solver = solvers.get();
+			solver.setStopSignal(search.stop);
+			try {
+				// deep enough, finish this branch on this thread
+				if (depth >= splitDepth) {
+					int[] branchSolution = search.solution != null ? new int[puzzle.length] : null;
+					int remaining = search.limit - search.found.get();
+					if (remaining <= 0) return;
+					search.record(solver.countSolutions(search.rows, search.columns, puzzle, branchSolution, remaining), branchSolution);
+					return;
+				}
+
+				// fill in what is forced, then split on the most constrained cell
+				int cell = solver.simplify(search.rows, search.columns, puzzle);
+				if (cell == -2) return;  // dead end
+				if (cell == -1) {
+					search.record(1, puzzle);  // forced values alone solved it
+					return;
+				}
+				long choices = solver.candidatesOf(cell);
+				BranchTask[] branches = new BranchTask[Long.bitCount(choices)];
+				for (int i = 0; i < branches.length; i++) {
+					long choice = choices & -choices;
+					choices ^= choice;
+					int[] copy = puzzle.clone();
+					copy[cell] = Long.numberOfTrailingZeros(choice) + 1;
+					branches[i] = new BranchTask(search, copy, depth + 1);
+				}
+				// run the first branch here and let idle threads steal the rest
+				for (int i = branches.length - 1; i > 0; i--) branches[i].fork();
+				branches[0].compute();
+				for (int i = 1; i < branches.length; i++) {
+					// once a sibling has finished the job, skip branches that have not started yet
+					if (!(search.stop.get() && branches[i].cancel(false))) branches[i].join();
+				}
+			} finally {
+				solver.setStopSignal(null);
+			}
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package pratt.dan.sudoku;
+import java.util.Random;  // for shuffling
+
+/**
+ * Creates new puzzles with exactly one solution for any board layout.
+ * A full board is made by filling the regions along the diagonal (which share no rows or columns) with random values and letting a solver
+ * complete the rest, then shuffling it (swapping values, rows inside a band, columns inside a stack, whole bands and whole stacks).
+ * Clues are then taken away in random order as long as a solver can still prove that only one solution is left.
+ *
+ * Working arrays are kept between calls, so a PuzzleGenerator object must not be shared between threads.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class PuzzleGenerator {
+
+	/** How hard a generated puzzle should be, by the share of cells left as clues. */
+	public enum Difficulty {
+		/** About half the cells are clues. */
+		EASY(0.50),
+		/** About two fifths of the cells are clues. */
+		MEDIUM(0.40),
+		/** As few clues as can be taken away while keeping one solution (down to about a quarter of the cells). */
+		HARD(0.25);
+
+		private final double clueShare;  // share of cells to leave as clues
+
+		Difficulty(double clueShare) {
+			this.clueShare = clueShare;
+		}
+
+		/**
+		 * Gets the number of clues to aim for on a board of the given size.
+		 * @param size Number of values in a row, column, or region.
+		 * @return Target number of clues.
+		 */
+		public int getTargetClues(int size) {
+			return (int) Math.round(size * size * clueShare);
+		}
+	}
+
+	// Tools
+	private final Random random;
+	private final CandidateSolver solver = new CandidateSolver();
+
+	// Layout the working arrays were created for
+	private int rows, columns, size;
+	private int[] solved;  // a solved board for this layout, used if a random one cannot be finished
+	private int[] seeded, base;  // random values on the diagonal regions, and the full board the solver made from them
+	private int[] regionValues;  // 1 to size, shuffled for each diagonal region
+	private int[] full, puzzle;  // the shuffled full board and the puzzle being carved out of it
+	private int[] valueOrder, rowOrder, columnOrder, cellOrder;  // shuffled orders
+
+	/**
+	 * Creates a generator with a random seed.
+	 */
+	public PuzzleGenerator() {
+		this(new Random());
+	}
+
+	/**
+	 * Creates a generator that uses the given random number generator (useful for making the same puzzles again).
+	 * @param random Source of random numbers.
+	 */
+	public PuzzleGenerator(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Creates a new puzzle for the given difficulty.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param difficulty How many clues to leave.
+	 * @return A new board with its clues fixed as givens.
+	 */
+	public SudokuBoard generate(int layoutRows, int layoutColumns, Difficulty difficulty) {
+		return generate(layoutRows, layoutColumns, difficulty.getTargetClues(layoutRows * layoutColumns));
+	}
+
+	/**
+	 * Creates a new puzzle with (at most) the given number of clues.  Clues are only taken away while the puzzle keeps one solution,
+	 * so a puzzle may end up with more clues than asked for.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param targetClues Number of clues to stop at.
+	 * @return A new board with its clues fixed as givens.
+	 */
+	public SudokuBoard generate(int layoutRows, int layoutColumns, int targetClues) {
+		int[] cells = generateCells(layoutRows, layoutColumns, targetClues);
+		SudokuBoard board = new SudokuBoard(layoutRows, layoutColumns);
+		for (int cell = 0; cell < cells.length; cell++) {
+			if (cells[cell] != 0) board.setRawValue(cell / size, cell % size, cells[cell]);
+		}
+		board.fixGivens();
+		return board;
+	}
+
+	/*
+	 * Creates a new puzzle and returns its values (one per cell, row by row, 0 for empty cells).
+	 * The returned array belongs to the generator and is overwritten by the next call.
+	 */
+	int[] generateCells(int layoutRows, int layoutColumns, int targetClues) {
+		setLayout(layoutRows, layoutColumns);
+		solveRandomBoard();
+		shuffleFullBoard();
+		System.arraycopy(full, 0, puzzle, 0, full.length);
+
+		// take away clues in random order, putting back any that leave more than one solution
+		shuffle(cellOrder);
+		int clues = full.length;
+		for (int i = 0; i < cellOrder.length && clues > targetClues; i++) {
+			int cell = cellOrder[i];
+			puzzle[cell] = 0;
+			if (solver.countSolutions(rows, columns, puzzle, 2) == 1) {
+				clues--;
+			} else {
+				puzzle[cell] = full[cell];  // needed for a unique solution
+			}
+		}
+		return puzzle;
+	}
+
+	/*
+	 * Creates the working arrays for a layout.  Does nothing if they already match.
+	 */
+	private void setLayout(int layoutRows, int layoutColumns) {
+		if (layoutRows == rows && layoutColumns == columns) return;
+		int newSize = layoutRows * layoutColumns;
+		int[] newSolved = new int[newSize * newSize];  // fields are only changed once the layout is known to work
+		if (!solver.solve(layoutRows, layoutColumns, new int[newSize * newSize], newSolved)) {
+			throw new IllegalArgumentException("Layout not supported: " + layoutRows + " x " + layoutColumns);
+		}
+		solved = newSolved;
+		rows = layoutRows;
+		columns = layoutColumns;
+		size = newSize;
+		full = new int[size * size];
+		puzzle = new int[size * size];
+		seeded = new int[size * size];
+		base = new int[size * size];
+		regionValues = identity(size + 1);
+		valueOrder = identity(size + 1);
+		rowOrder = identity(size);
+		columnOrder = identity(size);
+		cellOrder = identity(size * size);
+	}
+
+	/*
+	 * Makes a new base board: random values in each region on the diagonal, with the rest filled in by the solver.
+	 * Regions on the diagonal share no rows or columns, so any values can go in each of them.
+	 */
+	private void solveRandomBoard() {
+		java.util.Arrays.fill(seeded, 0);
+		int diagonal = Math.min(rows, columns);  // number of bands and of stacks, whichever is smaller
+		for (int region = 0; region < diagonal; region++) {
+			for (int i = size; i > 1; i--) swap(regionValues, i, 1 + random.nextInt(i));  // shuffle 1 to size, leaving 0 in place
+			for (int i = 0; i < size; i++) {
+				int row = region * rows + i / columns, col = region * columns + i % columns;
+				seeded[row * size + col] = regionValues[i + 1];
+			}
+		}
+		if (!solver.solve(rows, columns, seeded, base)) {
+			System.arraycopy(solved, 0, base, 0, base.length);  // these values cannot be finished, so fall back on the layout's solved board
+		}
+	}
+
+	/*
+	 * Makes a full board by randomly shuffling the base one.  Every shuffle keeps rows, columns, and regions valid.
+	 */
+	private void shuffleFullBoard() {
+		// relabel values (0 stays 0)
+		for (int i = size; i > 1; i--) swap(valueOrder, i, 1 + random.nextInt(i));
+		// rows: shuffle inside each band (a band is `rows` rows tall), then shuffle the bands
+		shuffleGroups(rowOrder, rows);
+		// columns: shuffle inside each stack (a stack is `columns` columns wide), then shuffle the stacks
+		shuffleGroups(columnOrder, columns);
+
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				full[row * size + col] = valueOrder[base[rowOrder[row] * size + columnOrder[col]]];
+			}
+		}
+	}
+
+	/*
+	 * Shuffles the lines inside every group of groupSize lines, then shuffles the order of the groups.
+	 */
+	private void shuffleGroups(int[] order, int groupSize) {
+		int groups = size / groupSize;
+		for (int i = 0; i < size; i++) order[i] = i;
+		// shuffle the groups as whole blocks
+		for (int i = groups - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			for (int k = 0; k < groupSize; k++) swap(order, i * groupSize + k, j * groupSize + k);
+		}
+		// then shuffle inside each group
+		for (int group = 0; group < groups; group++) {
+			int first = group * groupSize;
+			for (int i = groupSize - 1; i > 0; i--) swap(order, first + i, first + random.nextInt(i + 1));
+		}
+	}
+
+	/*
+	 * Randomly reorders a whole array.
+	 */
+	private void shuffle(int[] order) {
+		for (int i = order.length - 1; i > 0; i--) swap(order, i, random.nextInt(i + 1));
+	}
+
+	/*
+	 * Swaps two entries of an array.
+	 */
+	private static void swap(int[] array, int i, int j) {
+		int temp = array[i];
+		array[i] = array[j];
+		array[j] = temp;
+	}
+
+	/*
+	 * Creates an array holding 0, 1, 2, ... length - 1.
+	 */
+	private static int[] identity(int length) {
+		int[] array = new int[length];
+		for (int i = 0; i < length; i++) array[i] = i;
+		return array;
+	}
+}
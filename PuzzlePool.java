@@ -0,0 +1,238 @@
+package pratt.dan.sudoku;
+import java.util.ArrayDeque;  // puzzles waiting in a bucket
+import java.util.Iterator;  // for walking the buckets during eviction
+import java.util.LinkedHashMap;  // buckets, kept in least recently requested order
+import java.util.concurrent.ExecutorService;  // background refill threads
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;  // hit / miss counters
+
+/**
+ * Keeps puzzles generated ahead of time so a new game can start right away instead of waiting for the generator.
+ * Puzzles are kept in buckets by layout and difficulty.  Background threads top a bucket back up whenever a puzzle is taken from it.
+ * <p>
+ * The pool holds at most a set number of bytes of puzzles.  When it is full, puzzles are dropped from the bucket that was requested least recently.
+ * A PuzzlePool object can be shared between threads.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class PuzzlePool {
+
+	// Rough memory used by each stored puzzle on top of one byte per cell (array header and queue slot)
+	private static final int PUZZLE_OVERHEAD_BYTES = 24;
+
+	// Limits
+	private final long maxBytes;  // most memory all buckets together may use
+	private final int puzzlesPerBucket;  // number of puzzles each bucket is refilled to
+
+	// Buckets by key, least recently requested first.  Guarded by this.
+	private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<String, Bucket>(16, 0.75f, true);
+	private long usedBytes;  // guarded by this
+
+	// Counters
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	// Background refill
+	private final ExecutorService refillThreads;
+	private final ThreadLocal<PuzzleGenerator> generators = new ThreadLocal<PuzzleGenerator>() {
+		@Override
+		protected PuzzleGenerator initialValue() {
+			return new PuzzleGenerator();
+		}
+	};
+
+	/**
+	 * Creates an empty puzzle pool.
+	 * @param maxBytes Most memory the stored puzzles may use.
+	 * @param puzzlesPerBucket Number of puzzles to keep ready for each layout and difficulty.
+	 * @param threads Number of background threads that generate puzzles.
+	 */
+	public PuzzlePool(long maxBytes, int puzzlesPerBucket, int threads) {
+		if (maxBytes < 1 || puzzlesPerBucket < 1 || threads < 1) {
+			throw new IllegalArgumentException("Pool limits out of range");
+		}
+		this.maxBytes = maxBytes;
+		this.puzzlesPerBucket = puzzlesPerBucket;
+		refillThreads = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "PuzzlePool refill");
+				thread.setDaemon(true);  // never keep the game from exiting
+				thread.setPriority(Thread.MIN_PRIORITY);  // stay out of the way of the GUI
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Starts filling the bucket for a layout and difficulty in the background, so later requests are served right away.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param difficulty Difficulty of the puzzles.
+	 */
+	public void prefill(int layoutRows, int layoutColumns, PuzzleGenerator.Difficulty difficulty) {
+		Bucket bucket;
+		synchronized (this) {
+			bucket = getBucket(layoutRows, layoutColumns, difficulty);
+		}
+		scheduleRefill(bucket);
+	}
+
+	/**
+	 * Gets a new puzzle.  Comes straight from the pool if one is ready, otherwise it is generated on the calling thread.
+	 * Either way, the bucket is topped up again in the background.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param difficulty Difficulty of the puzzle.
+	 * @return A new board with its clues fixed as givens.
+	 */
+	public SudokuBoard take(int layoutRows, int layoutColumns, PuzzleGenerator.Difficulty difficulty) {
+		Bucket bucket;
+		byte[] cells;
+		synchronized (this) {
+			bucket = getBucket(layoutRows, layoutColumns, difficulty);  // also marks it as most recently requested
+			cells = bucket.puzzles.poll();
+			if (cells != null) usedBytes -= bytesFor(cells);
+		}
+		scheduleRefill(bucket);
+
+		if (cells == null) {
+			misses.incrementAndGet();
+			return generators.get().generate(layoutRows, layoutColumns, difficulty);
+		}
+		hits.incrementAndGet();
+		SudokuBoard board = new SudokuBoard(layoutRows, layoutColumns);
+		for (int cell = 0; cell < cells.length; cell++) {
+			if (cells[cell] != 0) board.setRawValue(cell / board.size, cell % board.size, cells[cell]);
+		}
+		board.fixGivens();
+		return board;
+	}
+
+	/**
+	 * Gets the number of requests that were served from the pool.
+	 * @return Number of hits.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of requests that had to generate a puzzle because the pool was empty.
+	 * @return Number of misses.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the memory the stored puzzles are using.
+	 * @return Approximate number of bytes used.
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Stops the background threads.  Puzzles can still be taken, but buckets are no longer refilled.
+	 */
+	public void shutdown() {
+		refillThreads.shutdownNow();
+	}
+
+	/*
+	 * Finds (or creates) the bucket for a layout and difficulty.  Must hold the lock.
+	 */
+	private Bucket getBucket(int layoutRows, int layoutColumns, PuzzleGenerator.Difficulty difficulty) {
+		String key = layoutRows + "x" + layoutColumns + ":" + difficulty;
+		Bucket bucket = buckets.get(key);
+		if (bucket == null) {
+			bucket = new Bucket(layoutRows, layoutColumns, difficulty);
+			buckets.put(key, bucket);
+		}
+		return bucket;
+	}
+
+	/*
+	 * Queues a refill of a bucket unless one is already queued or running.
+	 */
+	private void scheduleRefill(final Bucket bucket) {
+		synchronized (this) {
+			if (bucket.refilling || refillThreads.isShutdown()) return;
+			bucket.refilling = true;
+		}
+		refillThreads.execute(new Runnable() {
+			@Override
+			public void run() {
+				refill(bucket);
+			}
+		});
+	}
+
+	/*
+	 * Generates puzzles for a bucket until it is full, or until there is no room left for it in the pool.
+	 */
+	private void refill(Bucket bucket) {
+		PuzzleGenerator generator = generators.get();
+		int cellCount = bucket.rows * bucket.columns * bucket.rows * bucket.columns;
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				synchronized (this) {
+					if (bucket.puzzles.size() >= puzzlesPerBucket) return;  // full
+				}
+				int[] generated = generator.generateCells(bucket.rows, bucket.columns,
+						bucket.difficulty.getTargetClues(bucket.rows * bucket.columns));
+				byte[] cells = new byte[cellCount];
+				for (int cell = 0; cell < cellCount; cell++) cells[cell] = (byte) generated[cell];
+				synchronized (this) {
+					if (!makeRoom(bytesFor(cells), bucket)) return;  // the pool is full of more recently requested puzzles
+					bucket.puzzles.add(cells);
+					usedBytes += bytesFor(cells);
+				}
+			}
+		} finally {
+			synchronized (this) {
+				bucket.refilling = false;
+			}
+		}
+	}
+
+	/*
+	 * Drops puzzles from the least recently requested buckets (never from keep) until there is room for the given number of bytes.
+	 * Returns false if there is not enough room even then.  Must hold the lock.
+	 */
+	private boolean makeRoom(long bytes, Bucket keep) {
+		Iterator<Bucket> leastRecent = buckets.values().iterator();
+		while (usedBytes + bytes > maxBytes && leastRecent.hasNext()) {
+			Bucket bucket = leastRecent.next();
+			if (bucket == keep) continue;
+			while (usedBytes + bytes > maxBytes && !bucket.puzzles.isEmpty()) {
+				usedBytes -= bytesFor(bucket.puzzles.pollLast());  // drop the newest, the oldest go out first when taken
+			}
+		}
+		return usedBytes + bytes <= maxBytes;
+	}
+
+	/*
+	 * Approximate memory used by one stored puzzle.
+	 */
+	private static long bytesFor(byte[] cells) {
+		return cells.length + PUZZLE_OVERHEAD_BYTES;
+	}
+
+	/*
+	 * Puzzles ready for one layout and difficulty.  Fields are guarded by the pool's lock.
+	 */
+	private static class Bucket {
+		final int rows, columns;
+		final PuzzleGenerator.Difficulty difficulty;
+		final ArrayDeque<byte[]> puzzles = new ArrayDeque<byte[]>();  // one byte per cell, row by row
+		boolean refilling;  // true while a refill is queued or running
+
+		Bucket(int rows, int columns, PuzzleGenerator.Difficulty difficulty) {
+			this.rows = rows;
+			this.columns = columns;
+			this.difficulty = difficulty;
+		}
+	}
+}
@@ -1,259 +1,695 @@
-package pratt.dan.sudoku;
-// Class imports
-import java.io.*;  // for file operations
-
-import javax.swing.JFrame;
-import javax.swing.JOptionPane;
-
-/**
- * Base class of Sudoku.java game.  Creates the board and allows interaction with game board.  Can set and retrieve values, as well as mask unchangeable starting values.
- * Level: Challenge
- * @author Dan Jinguji, JavaDoc comments added by Dan Pratt
- * @version Assignment 3: Sudoku Core
- * 
- *
- */
-public abstract class SudokuBase extends java.util.Observable implements java.io.Serializable {
-   
-   // Class Public fields
-	/** Holds number of rows in board instance, cannot be changed once object is instantiated */
-   public final int rows;
-   /** Holds number of columns in board instance, cannot be changed once object is instantiated  */
-   public final int columns;
-   /** Holds size (number of values in a row, column, or region - i.e. row * column) in board instance, cannot be changed once object is instantiated */
-   public final int size;
-   
-   // Private field
-   private final int[] grid;  // The board.  Holds all values on board inside this array.
-   
-   // Private constants for setting givens
-   private static final int GIVEN_MASK = 0x00000100;  // bit mask
-   private static final int GIVEN_UNMASK = ~ GIVEN_MASK; // unmask bit operation
-   		
-   /** Possible states a row, column or region can be in.*/
-   public enum State {
-	   /** All values are filled in and unique from 1 - size. */
-	   COMPLETE, 
-	   /** There are holes in checked area, but no duplicates. */
-	   INCOMPLETE, 
-	   /** There are duplicates in checked area. */
-	   ERROR};
-	   
-	   /** Type of area for completion checking */
-	public enum Type {
-		/** For checking rows */
-		ROW, 
-		/** For checking columns */
-		COLUMN, 
-		/** For checking regions */
-		REGION
-		};
-   
-	   /**
-	    * Creates Sudoku game board object according to given params.  Creates an array to hold board values. Note: no initial values are set.
-	    * @param layoutRows number of rows in each region
-	    * @param layoutColumns number of columns in each region
-	    */
-   public SudokuBase(int layoutRows, int layoutColumns) {
-      rows = layoutRows;
-      columns = layoutColumns;
-      size = columns * rows;
-      grid = new int[size*size];
-   }
-   
-   /*
-  	* Gets the corresponding index of a given row, column value.
-    * @param row Row of value trying to find the index of.
-    * @param col Column of value trying to find the index of.
-    * @return The index in grid[] that the given row and column corresponds to.
-    */
-   private int getIndex(int row, int col) {
-	  // make sure that the row and column are within range
-      if(row < 0 || row >= size || col < 0 || col >= size) {
-         String msg = "Error in location";
-         throw new IllegalArgumentException(msg);
-      }
-      // return index of given row, column.
-      return row * size + col;
-   }
-   
-   /**
-    * Gets the value held in given row, column of an instantiated SudokuBase object.
-    * Precondition: Must be a valid (on game board) (row, column) coordinate.
-    * @param row The row where the desired value is in. (Row cannot be less than 0 or greater or equal to this.size).
-    * @param col The column where the desired value is in. (Column cannot be less than 0 or greater or equal to this.size).
-    * @return The value held inside a given (row, column)
-    */
-   public int getValue(int row, int col) {
-      return grid[getIndex(row, col)] & GIVEN_UNMASK;
-   }
-   
-   /**
-    * Sets the given value into a given (row, column) coordinate in SudokuBase.
-    * Preconditions: Must be a valid (on game board) (row, column) coordinate.  Cannot override the value of a given.
-    * @param row The row where the given value should be placed. (Row cannot be less than 0 or greater or equal to this.size).
-    * @param col The column where the given value should be placed. (Column cannot be less than 0 or greater or equal to this.size).
-    * @param value The desired value to put inside given (row, column) coordinate.  (Value must be from 1 up to and including this.size).
-    */
-   public void setValue(int row, int col, int value) {
-	   // Make sure given value is within range.
-      if(value < 0 || value > size) {
-         String msg = "Value out of range: " + value;
-         throw new IllegalArgumentException(msg);
-      }
-      // Make sure not trying to overwrite a given value.
-      if(isGiven(row, col)) {
-         String msg = "Cannot set given location: " + row + ", " + col;
-         throw new IllegalStateException(msg);
-      }
-      // set value (exception thrown if row or column is outside of range)
-      grid[getIndex(row, col)] = value;
-      setChanged();
-      notifyObservers();
-   }
-   
-   /**
-    * Checks to see if given (row, column) coordinate is a given or not.
-    * Precondition: Must be a valid (on game board) (row, column) coordinate.
-    * @param row The row coordinate to check. (Row cannot be less than 0 or greater or equal to this.size).
-    * @param col The column coordinate to check. (Column cannot be less than 0 or greater or equal to this.size).
-    * @return true if value is a given, false if it is not.
-    */
-   public boolean isGiven(int row, int col) {
-	  // will return true if the value at index is equal to the GIVEN_MASK when a bitwise and operation is performed.
-      return (grid[getIndex(row, col)] & GIVEN_MASK) == GIVEN_MASK;
-   }
-   
-   /**
-    * Sets all non-zero values inside SudokuBase object to givens.  Should be called after initial values are set into board.
-    * Note: Should not call after game has begin as this will lock these values, preventing them to be set to anything else.
-    */
-   public void fixGivens() {
-      for(int i = 0; i < grid.length; i++)
-    	 // If the current value does not equal zero, perform bitwise or compare to GIVEN_MASK to lock these values.
-         if(grid[i] != 0) 
-            grid[i] |= GIVEN_MASK;
-      		setChanged();
-      		notifyObservers();
-   }
-   
-   /**
-    * Returns State value of a given row.
-    * Precondition: Row must be within range (0 up to but not including this.size).
-    * @param n Row to check State of.
-    * @return State of row (COMPLETE, ERROR, or INCOMPLETE).
-    */
-   public abstract State getRowState(int n);
-   /**
-    * Returns State value of a given column.
-    * Precondition: Column must be within Column (0 up to but not including this.size).
-    * @param n Column to check State of.
-    * @return State of column (COMPLETE, ERROR, or INCOMPLETE).
-    */
-   public abstract State getColumnState(int n);
-   /**
-    * Returns State value of a given region.
-    * Precondition: Region must be within range (0 up to but not including this.size).
-    * @param n Region to check State of.
-    * @return State of region (COMPLETE, ERROR, or INCOMPLETE).
-    */
-   public abstract State getRegionState(int n);
-   
-   /**
-    * toString method that represents SudokuBase by showing values held within the grid.
-    */
-   @Override
-   public String toString() {
-      String board = "";
-      for(int i = 0; i < size; i ++) {
-         for(int j = 0; j < size; j ++)
-            board += charFor(i, j) + " ";
-         board += "\n";
-      }
-      return board;
-   }
-
-   /*
-    * Private helper method for toString.  Displays ? for invalid values, spaces for 0's, and the actual held value for all valid values.
-    */
-   private String charFor(int i, int j) {
-      int v = getValue(i, j);
-      if(v < 0) {
-         return "?";
-      } else if(v == 0) {
-         return " ";
-      } else if(v < 36) {
-         return Character.toString(Character.forDigit(v, 36)).toUpperCase();
-      } else {
-         return "?";
-      }
-   }
-
-   /*
-    * Attempts to load a game model using given filename
-    */
-   protected SudokuBoard readFromStream(File file) {
-	   // open the stream and write data to file
-	   try {
-		   FileInputStream fileIn = new FileInputStream(file);
-		   ObjectInputStream gameModel = new ObjectInputStream(fileIn);
-		   SudokuBoard loadedGame = (SudokuBoard) gameModel.readObject();
-		   gameModel.close();
-		   fileIn.close();
-		   return loadedGame;
-		   
-	   } catch (ClassNotFoundException e) {
-		 //custom title, error icon
-		   JOptionPane.showMessageDialog(new JFrame(),
-		       "File could not be loaded.",
-		       "Load Error",
-		       JOptionPane.ERROR_MESSAGE);
-	   } catch (FileNotFoundException e) {
-		   JOptionPane.showMessageDialog(new JFrame(),
-			       "File could not be loaded.",
-			       "Load Error",
-			       JOptionPane.ERROR_MESSAGE);
-	} catch (IOException e) {
-		JOptionPane.showMessageDialog(new JFrame(),
-			       "File could not be loaded.",
-			       "Load Error",
-			       JOptionPane.ERROR_MESSAGE);
-	}
-	// Something went wrong, so returning null.
-	return null;
-
-   }
-   
-   /*
-    * Attempts to save a game model using given filename
-    */
-   protected void writeToStream(SudokuBoard gameModel, File filename) {
-	   // open the stream and write data to file
-	   try {
-		   FileOutputStream fileOut = new FileOutputStream(filename);
-		   ObjectOutputStream out = new ObjectOutputStream(fileOut);
-		   out.writeObject(gameModel);
-		   out.close();
-		   fileOut.close();
-		   
-	   } catch (IOException e) {
-		 //custom title, error icon
-		   JOptionPane.showMessageDialog(new JFrame(),
-		       "File could not be saved.",
-		       "Save Error",
-		       JOptionPane.ERROR_MESSAGE);
-	   }
-   }
-   /*
-    * Method to be implemented in later version; will read the values from grid.
-    */
-   protected int getRawValue(int row, int col) {
-      return grid[getIndex(row, col)];
-   }
-   /*
-    * Method to be implemented in later version; will write values to grid.
-    */
-   protected void setRawValue(int row, int col, int value) {
-      grid[getIndex(row, col)] = value;
-   }
-}
+package pratt.dan.sudoku;
+// Class imports
+import java.io.*;  // for file operations
+import java.nio.ByteBuffer;  // for the compact save format
+import java.nio.channels.FileChannel;  // for reading and writing save files
+import java.nio.file.StandardOpenOption;  // for opening save files
+import java.util.Arrays;  // for copying the cell listener array
+import java.util.BitSet;  // for keeping track of cells changed during a batch update
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+
+/**
+ * Base class of Sudoku.java game.  Creates the board and allows interaction with game board.  Can set and retrieve values, as well as mask unchangeable starting values.
+ * Level: Challenge
+ * @author Dan Jinguji, JavaDoc comments added by Dan Pratt
+ * @version Assignment 3: Sudoku Core
+ * 
+ *
+ */
+public abstract class SudokuBase extends java.util.Observable implements java.io.Serializable {
+   
+   // Pinned so saves made before the class gained new members still load.
+   private static final long serialVersionUID = -4719973219602249886L;
+   
+   // Class Public fields
+	/** Holds number of rows in board instance, cannot be changed once object is instantiated */
+   public final int rows;
+   /** Holds number of columns in board instance, cannot be changed once object is instantiated  */
+   public final int columns;
+   /** Holds size (number of values in a row, column, or region - i.e. row * column) in board instance, cannot be changed once object is instantiated */
+   public final int size;
+   
+   // Private field
+   private final int[] grid;  // The board.  Holds all values on board inside this array.  null if a subclass keeps the values somewhere else.
+   
+   // Batch update tracking, only needed while the game is running so it is not saved
+   private transient int updateDepth;  // number of beginUpdate() calls not yet matched by endUpdate()
+   private transient BitSet dirtyCells;  // cells changed since the outermost beginUpdate(), by index
+   
+   // Undo / redo history, not saved with the board.  Created on the first move.
+   private transient MoveJournal journal;
+   private transient int historyLimit;  // most moves kept, 0 for MoveJournal.DEFAULT_LIMIT
+   private transient boolean batchRecorded;  // true once a move has been recorded in the current batch, so the rest join its undo step
+   
+   // Cell listeners.  Copied on every add or remove, so changes to the board can call them without locking.
+   private static final CellListener[] NO_LISTENERS = new CellListener[0];
+   private transient volatile CellListener[] cellListeners = NO_LISTENERS;  // null after loading a saved game
+   
+   // Constants for setting givens (the mask is shared with subclasses that keep their own storage)
+   static final int GIVEN_MASK = 0x00000100;  // bit mask
+   private static final int GIVEN_UNMASK = ~ GIVEN_MASK; // unmask bit operation
+   
+   // Private constants for the compact save format
+   private static final int SAVE_MAGIC = 0x53444B42;  // "SDKB", marks a compact save file
+   private static final byte SAVE_VERSION = 1;  // bumped whenever the layout of a save file changes
+   private static final int SAVE_HEADER_BYTES = 7;  // magic, version, rows, columns
+   private static final int MAX_SAVE_SIZE = GIVEN_MASK - 1;  // largest board size a save file may hold, so values never reach the given flag
+   		
+   /** Possible states a row, column or region can be in.*/
+   public enum State {
+	   /** All values are filled in and unique from 1 - size. */
+	   COMPLETE, 
+	   /** There are holes in checked area, but no duplicates. */
+	   INCOMPLETE, 
+	   /** There are duplicates in checked area. */
+	   ERROR};
+	   
+	   /** Type of area for completion checking */
+	public enum Type {
+		/** For checking rows */
+		ROW, 
+		/** For checking columns */
+		COLUMN, 
+		/** For checking regions */
+		REGION
+		};
+   
+	   /**
+	    * Creates Sudoku game board object according to given params.  Creates an array to hold board values. Note: no initial values are set.
+	    * @param layoutRows number of rows in each region
+	    * @param layoutColumns number of columns in each region
+	    */
+   public SudokuBase(int layoutRows, int layoutColumns) {
+      this(layoutRows, layoutColumns, true);
+   }
+   
+   /*
+    * Creates a board that either holds its values in its own array, or (ownGrid false) leaves them to a subclass that overrides readCell and writeCell.
+    */
+   SudokuBase(int layoutRows, int layoutColumns, boolean ownGrid) {
+      rows = layoutRows;
+      columns = layoutColumns;
+      size = columns * rows;
+      grid = ownGrid ? new int[size*size] : null;
+   }
+   
+   /*
+    * Reads the raw contents of a cell by index (row * size + col): the value, with GIVEN_MASK set for givens.
+    * Subclasses that keep the values somewhere else override this and writeCell.
+    */
+   int readCell(int index) {
+      return grid[index];
+   }
+   
+   /*
+    * Writes the raw contents of a cell by index (see readCell).  Does no checking and tells no one.
+    */
+   void writeCell(int index, int raw) {
+      grid[index] = raw;
+   }
+   
+   /*
+  	* Gets the corresponding index of a given row, column value.
+    * @param row Row of value trying to find the index of.
+    * @param col Column of value trying to find the index of.
+    * @return The index in grid[] that the given row and column corresponds to.
+    */
+   int getIndex(int row, int col) {
+	  // make sure that the row and column are within range
+      if(row < 0 || row >= size || col < 0 || col >= size) {
+         String msg = "Error in location";
+         throw new IllegalArgumentException(msg);
+      }
+      // return index of given row, column.
+      return row * size + col;
+   }
+   
+   /**
+    * Gets the value held in given row, column of an instantiated SudokuBase object.
+    * Precondition: Must be a valid (on game board) (row, column) coordinate.
+    * @param row The row where the desired value is in. (Row cannot be less than 0 or greater or equal to this.size).
+    * @param col The column where the desired value is in. (Column cannot be less than 0 or greater or equal to this.size).
+    * @return The value held inside a given (row, column)
+    */
+   public int getValue(int row, int col) {
+      return readCell(getIndex(row, col)) & GIVEN_UNMASK;
+   }
+   
+   /**
+    * Sets the given value into a given (row, column) coordinate in SudokuBase.
+    * Preconditions: Must be a valid (on game board) (row, column) coordinate.  Cannot override the value of a given.
+    * The move can be taken back with undo().
+    * @param row The row where the given value should be placed. (Row cannot be less than 0 or greater or equal to this.size).
+    * @param col The column where the given value should be placed. (Column cannot be less than 0 or greater or equal to this.size).
+    * @param value The desired value to put inside given (row, column) coordinate.  (Value must be from 1 up to and including this.size).
+    */
+   public void setValue(int row, int col, int value) {
+	   // Make sure given value is within range.
+      if(value < 0 || value > size) {
+         String msg = "Value out of range: " + value;
+         throw new IllegalArgumentException(msg);
+      }
+      // Make sure not trying to overwrite a given value.
+      if(isGiven(row, col)) {
+         String msg = "Cannot set given location: " + row + ", " + col;
+         throw new IllegalStateException(msg);
+      }
+      // set value (exception thrown if row or column is outside of range)
+      int index = getIndex(row, col);
+      int oldValue = readCell(index) & GIVEN_UNMASK;
+      if(oldValue != value) recordMove(index, oldValue, value);
+      writeCell(index, value);
+      valueChanged(row, col, oldValue, value);  // let subclasses keep their bookkeeping current
+      fireCellChanged(row, col, oldValue, value, false);
+      cellChanged(index);
+   }
+   
+   /**
+    * Takes back the last move made with setValue().  Moves made inside one beginUpdate() / endUpdate() batch are taken back together.
+    * Observers are notified once, the same way as for a batch.
+    * @return true if there was a move to take back.
+    */
+   public boolean undo() {
+      if(journal == null || !journal.canUndo()) return false;
+      beginUpdate();
+      try {
+         long move;
+         do {
+            move = journal.undo();
+            replayMove(MoveJournal.cell(move), MoveJournal.oldValue(move));
+         } while(!MoveJournal.startsGroup(move));
+      } finally {
+         endUpdate();
+      }
+      return true;
+   }
+   
+   /**
+    * Makes the last move taken back with undo() again.  Observers are notified once, the same way as for a batch.
+    * @return true if there was a move to make again.
+    */
+   public boolean redo() {
+      if(journal == null || !journal.canRedo()) return false;
+      beginUpdate();
+      try {
+         do {
+            long move = journal.redo();
+            replayMove(MoveJournal.cell(move), MoveJournal.newValue(move));
+         } while(!journal.nextRedoStartsGroup());
+      } finally {
+         endUpdate();
+      }
+      return true;
+   }
+   
+   /**
+    * Tells if there is a move that undo() can take back.
+    * @return true if undo() would change the board.
+    */
+   public boolean canUndo() {
+      return journal != null && journal.canUndo();
+   }
+   
+   /**
+    * Tells if there is a move that redo() can make again.
+    * @return true if redo() would change the board.
+    */
+   public boolean canRedo() {
+      return journal != null && journal.canRedo();
+   }
+   
+   /**
+    * Forgets every move, so none can be undone or redone.
+    */
+   public void clearHistory() {
+      if(journal != null) journal.clear();
+   }
+   
+   /**
+    * Sets how many moves are kept for undo.  Once there are more, the oldest are forgotten.  History is not saved with the board.
+    * @param moves Most moves to keep (at least 1).
+    */
+   public void setHistoryLimit(int moves) {
+      if(moves < 1) {
+         String msg = "Value out of range: " + moves;
+         throw new IllegalArgumentException(msg);
+      }
+      historyLimit = moves;
+      if(journal != null) journal.setLimit(moves);
+   }
+   
+   /*
+    * Records a move for undo.  The first move in a batch starts an undo step and the rest of the batch joins it.
+    */
+   private void recordMove(int index, int oldValue, int newValue) {
+      if(journal == null) journal = historyLimit == 0 ? new MoveJournal() : new MoveJournal(historyLimit);
+      journal.record(index, oldValue, newValue, updateDepth == 0 || !batchRecorded);
+      if(updateDepth > 0) batchRecorded = true;
+   }
+   
+   /*
+    * Puts a value back into a cell for undo or redo, telling everyone as setValue() does but without recording a move.
+    */
+   private void replayMove(int index, int value) {
+      int oldValue = readCell(index) & GIVEN_UNMASK;
+      writeCell(index, value);
+      valueChanged(index / size, index % size, oldValue, value);
+      fireCellChanged(index / size, index % size, oldValue, value, false);
+      cellChanged(index);
+   }
+   
+   /**
+    * Checks to see if given (row, column) coordinate is a given or not.
+    * Precondition: Must be a valid (on game board) (row, column) coordinate.
+    * @param row The row coordinate to check. (Row cannot be less than 0 or greater or equal to this.size).
+    * @param col The column coordinate to check. (Column cannot be less than 0 or greater or equal to this.size).
+    * @return true if value is a given, false if it is not.
+    */
+   public boolean isGiven(int row, int col) {
+	  // will return true if the value at index is equal to the GIVEN_MASK when a bitwise and operation is performed.
+      return (readCell(getIndex(row, col)) & GIVEN_MASK) == GIVEN_MASK;
+   }
+   
+   /**
+    * Sets all non-zero values inside SudokuBase object to givens.  Should be called after initial values are set into board.
+    * Note: Should not call after game has begin as this will lock these values, preventing them to be set to anything else.
+    * Also forgets the undo history, so undo() can never change a given.
+    */
+   public void fixGivens() {
+      clearHistory();  // undo must never change a given
+      beginUpdate();  // one notification for the whole board
+      for(int i = 0; i < size * size; i++) {
+         int raw = readCell(i);
+    	 // If the current value does not equal zero, perform bitwise or compare to GIVEN_MASK to lock these values.
+         if(raw != 0) {
+            writeCell(i, raw | GIVEN_MASK);
+            int value = raw & GIVEN_UNMASK;
+            fireCellChanged(i / size, i % size, value, value, true);
+            cellChanged(i);
+         }
+      }
+      endUpdate();
+   }
+   
+   /**
+    * Adds a listener that is told about every change to a single cell.  Unlike observers, cell listeners are also told about each cell
+    * changed inside a beginUpdate() / endUpdate() batch, and about changes made while loading a board.
+    * Listeners are not saved with the board.
+    * @param listener The listener to add.
+    */
+   public synchronized void addCellListener(CellListener listener) {
+      if(listener == null) {
+         String msg = "Listener cannot be null";
+         throw new IllegalArgumentException(msg);
+      }
+      CellListener[] current = cellListeners == null ? NO_LISTENERS : cellListeners;
+      CellListener[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = listener;
+      cellListeners = updated;
+   }
+   
+   /**
+    * Removes a listener added with addCellListener().  Does nothing if the listener was not added.
+    * @param listener The listener to remove.
+    */
+   public synchronized void removeCellListener(CellListener listener) {
+      CellListener[] current = cellListeners;
+      if(current == null) return;
+      for(int i = 0; i < current.length; i++) {
+         if(current[i] == listener) {
+            CellListener[] updated = new CellListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, updated.length - i);
+            cellListeners = updated;
+            return;
+         }
+      }
+   }
+   
+   /*
+    * Tells every cell listener about a change to one cell.
+    */
+   void fireCellChanged(int row, int col, int oldValue, int newValue, boolean given) {
+      CellListener[] listeners = cellListeners;  // a snapshot, safe even if a listener adds or removes listeners
+      if(listeners == null) return;
+      for(CellListener listener : listeners)
+         listener.cellChanged(this, row, col, oldValue, newValue, given);
+   }
+   
+   /**
+    * Starts a batch of changes.  Until the matching endUpdate() call, changes to the board do not notify observers;
+    * instead endUpdate() sends one notification for all of them.  Use this when changing many cells at once (loading a puzzle, resetting the board, filling in a solution).
+    * Calls can be nested; only the outermost endUpdate() notifies observers.
+    */
+   public void beginUpdate() {
+      if(updateDepth == 0) batchRecorded = false;  // moves in this batch form a new undo step
+      updateDepth++;
+   }
+   
+   /**
+    * Ends a batch of changes started with beginUpdate().  When the outermost batch ends and something changed, observers are notified once,
+    * with a java.util.BitSet of the changed cells (bit row * size + col is set for each one) as the argument.
+    * Precondition: Must match an earlier beginUpdate() call.
+    */
+   public void endUpdate() {
+      if(updateDepth == 0) {
+         String msg = "endUpdate() called without beginUpdate()";
+         throw new IllegalStateException(msg);
+      }
+      updateDepth--;
+      if(updateDepth == 0 && dirtyCells != null && !dirtyCells.isEmpty()) {
+         BitSet changed = (BitSet) dirtyCells.clone();  // observers get their own copy
+         dirtyCells.clear();
+         setChanged();
+         notifyObservers(changed);
+      }
+   }
+   
+   /*
+    * Notifies observers that a cell changed, or remembers it for endUpdate() if a batch is in progress.
+    */
+   void cellChanged(int index) {
+      if(updateDepth > 0) {
+         if(dirtyCells == null) dirtyCells = new BitSet(size * size);
+         dirtyCells.set(index);
+      } else {
+         setChanged();
+         notifyObservers();
+      }
+   }
+   
+   /**
+    * Returns State value of a given row.
+    * Precondition: Row must be within range (0 up to but not including this.size).
+    * @param n Row to check State of.
+    * @return State of row (COMPLETE, ERROR, or INCOMPLETE).
+    */
+   public abstract State getRowState(int n);
+   /**
+    * Returns State value of a given column.
+    * Precondition: Column must be within Column (0 up to but not including this.size).
+    * @param n Column to check State of.
+    * @return State of column (COMPLETE, ERROR, or INCOMPLETE).
+    */
+   public abstract State getColumnState(int n);
+   /**
+    * Returns State value of a given region.
+    * Precondition: Region must be within range (0 up to but not including this.size).
+    * @param n Region to check State of.
+    * @return State of region (COMPLETE, ERROR, or INCOMPLETE).
+    */
+   public abstract State getRegionState(int n);
+   
+   /*
+    * Works out the state of one row, column or region by looking at each of its cells, for subclasses that keep no counts.
+    */
+   State scanState(Type type, int n) {
+      if(n < 0 || n >= size) {
+         String msg = "Value out of range";
+         throw new IllegalArgumentException(msg);
+      }
+      long seen = 0;  // bit v - 1 is set once value v has been found (size is at most 63 wherever this is used)
+      int filled = 0;
+      for(int i = 0; i < size; i++) {
+         int index;
+         if(type == Type.ROW) {
+            index = n * size + i;
+         } else if(type == Type.COLUMN) {
+            index = i * size + n;
+         } else {
+            index = (n / rows * rows + i / columns) * size + n % rows * columns + i % columns;
+         }
+         int value = readCell(index) & GIVEN_UNMASK;
+         if(value != 0) {
+            long bit = 1L << (value - 1);
+            if((seen & bit) != 0) return State.ERROR;
+            seen |= bit;
+            filled++;
+         }
+      }
+      return filled == size ? State.COMPLETE : State.INCOMPLETE;
+   }
+   
+   /**
+    * toString method that represents SudokuBase by showing values held within the grid.
+    */
+   @Override
+   public String toString() {
+      String board = "";
+      for(int i = 0; i < size; i ++) {
+         for(int j = 0; j < size; j ++)
+            board += charFor(i, j) + " ";
+         board += "\n";
+      }
+      return board;
+   }
+
+   /*
+    * Private helper method for toString.  Displays ? for invalid values, spaces for 0's, and the actual held value for all valid values.
+    */
+   private String charFor(int i, int j) {
+      int v = getValue(i, j);
+      if(v < 0) {
+         return "?";
+      } else if(v == 0) {
+         return " ";
+      } else if(v < 36) {
+         return Character.toString(Character.forDigit(v, 36)).toUpperCase();
+      } else {
+         return "?";
+      }
+   }
+
+   /*
+    * Attempts to load a game model using given filename.  Reads the compact save format, as well as games saved with Java serialization by older versions.
+    */
+   protected SudokuBoard readFromStream(File file) {
+	   try {
+		   return readBoard(file);
+	   } catch (IOException e) {
+		   showLoadError();
+	   }
+	   // Something went wrong, so returning null.
+	   return null;
+   }
+   
+   /*
+    * Attempts to save a game model using given filename, in the compact save format.
+    */
+   protected void writeToStream(SudokuBoard gameModel, File filename) {
+	   try {
+		   writeFile(encode(gameModel), filename);
+	   } catch (IOException e) {
+		   showSaveError();
+	   }
+   }
+   
+   /*
+    * Reads a saved game, in the compact save format or saved with Java serialization by an older version.
+    * Throws IOException if the file cannot be read or does not hold a game.  Shows nothing to the user, so it can be called from any thread.
+    */
+   static SudokuBoard readBoard(File file) throws IOException {
+	   // read the whole file (a save is only tens of bytes) and check what format it is in
+	   FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	   ByteBuffer data;
+	   try {
+		   data = ByteBuffer.allocate((int) channel.size());
+		   while (data.hasRemaining() && channel.read(data) >= 0) {
+			   // keep reading until the buffer is full
+		   }
+	   } finally {
+		   channel.close();
+	   }
+	   data.flip();
+	   
+	   if (data.remaining() >= 4 && data.getInt(0) == SAVE_MAGIC) {
+		   return decode(data);
+	   }
+	   
+	   // no compact header, so this is a game saved by an older version
+	   try {
+		   ObjectInputStream gameModel = new ObjectInputStream(new ByteArrayInputStream(data.array(), 0, data.limit()));
+		   SudokuBoard loadedGame = (SudokuBoard) gameModel.readObject();
+		   gameModel.close();
+		   return loadedGame;
+	   } catch (ClassNotFoundException e) {
+		   throw new IOException("Not a Sudoku save file", e);
+	   } catch (ClassCastException e) {
+		   throw new IOException("Not a Sudoku save file", e);
+	   }
+   }
+   
+   /*
+    * Writes bytes to a file, replacing what was there.  Shows nothing to the user, so it can be called from any thread.
+    */
+   static void writeFile(ByteBuffer data, File file) throws IOException {
+	   // open the channel and write data to file
+	   FileChannel channel = FileChannel.open(file.toPath(),
+			   StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	   try {
+		   while (data.hasRemaining()) {
+			   channel.write(data);
+		   }
+	   } finally {
+		   channel.close();
+	   }
+   }
+   
+   /*
+    * Tells the user a game could not be loaded.  Must be called on the Swing event thread.
+    */
+   static void showLoadError() {
+	   //custom title, error icon
+	   JOptionPane.showMessageDialog(new JFrame(),
+			   "File could not be loaded.",
+			   "Load Error",
+			   JOptionPane.ERROR_MESSAGE);
+   }
+   
+   /*
+    * Tells the user a game could not be saved.  Must be called on the Swing event thread.
+    */
+   static void showSaveError() {
+	   //custom title, error icon
+	   JOptionPane.showMessageDialog(new JFrame(),
+			   "File could not be saved.",
+			   "Save Error",
+			   JOptionPane.ERROR_MESSAGE);
+   }
+   
+   /*
+    * Packs a board into the compact save format:
+    *   4 bytes   "SDKB"
+    *   1 byte    format version
+    *   1 byte    rows, 1 byte columns
+    *   values    one per cell, row by row, each using just enough bits to hold this.size (4 bits for a 3 x 3 layout)
+    *   givens    one bit per cell, row by row, set if the cell is a given
+    * Values and givens are packed starting at the high bit of each byte, and each section is padded out to a whole byte.
+    */
+   static ByteBuffer encode(SudokuBase board) {
+      int cells = board.size * board.size;
+      int bits = bitsPerValue(board.size);
+      ByteBuffer data = ByteBuffer.allocate(SAVE_HEADER_BYTES + (cells * bits + 7) / 8 + (cells + 7) / 8);
+      data.putInt(SAVE_MAGIC);
+      data.put(SAVE_VERSION);
+      data.put((byte) board.rows);
+      data.put((byte) board.columns);
+      
+      // values
+      long pending = 0;  // bits waiting to be written
+      int pendingBits = 0;
+      for (int i = 0; i < cells; i++) {
+         pending = (pending << bits) | (board.readCell(i) & GIVEN_UNMASK);
+         pendingBits += bits;
+         while (pendingBits >= 8) {
+            pendingBits -= 8;
+            data.put((byte) (pending >>> pendingBits));
+         }
+      }
+      if (pendingBits > 0) data.put((byte) (pending << (8 - pendingBits)));
+      
+      // givens
+      for (int i = 0; i < cells; i += 8) {
+         int packed = 0;
+         for (int j = 0; j < 8; j++) {
+            packed <<= 1;
+            if (i + j < cells && (board.readCell(i + j) & GIVEN_MASK) == GIVEN_MASK) packed |= 1;
+         }
+         data.put((byte) packed);
+      }
+      data.flip();
+      return data;
+   }
+   
+   /*
+    * Reads a board back out of the compact save format (see encode).
+    */
+   static SudokuBoard decode(ByteBuffer data) throws IOException {
+      if (data.remaining() < SAVE_HEADER_BYTES || data.getInt() != SAVE_MAGIC) {
+         throw new IOException("Not a Sudoku save file");
+      }
+      byte version = data.get();
+      if (version != SAVE_VERSION) {
+         throw new IOException("Unsupported save file version: " + version);
+      }
+      int rows = data.get(), columns = data.get();
+      if (rows < 1 || columns < 1 || rows * columns > MAX_SAVE_SIZE) {
+         throw new IOException("Bad board layout: " + rows + " x " + columns);
+      }
+      // check the file holds the whole board before making one, so a damaged header cannot ask for a huge board
+      int size = rows * columns;
+      int cells = size * size;
+      int bits = bitsPerValue(size);
+      if (data.remaining() < ((long) cells * bits + 7) / 8 + (cells + 7) / 8) {
+         throw new IOException("Save file is too short");
+      }
+      SudokuBoard board = new SudokuBoard(rows, columns);
+      
+      // values
+      long pending = 0;  // bits read but not used yet
+      int pendingBits = 0;
+      int valueMask = (1 << bits) - 1;
+      int[] values = new int[cells];
+      for (int i = 0; i < cells; i++) {
+         while (pendingBits < bits) {
+            pending = (pending << 8) | (data.get() & 0xFF);
+            pendingBits += 8;
+         }
+         pendingBits -= bits;
+         values[i] = (int) (pending >>> pendingBits) & valueMask;
+         if (values[i] > board.size) throw new IOException("Value out of range: " + values[i]);
+      }
+      
+      // givens
+      for (int i = 0; i < cells; i += 8) {
+         int packed = data.get() & 0xFF;
+         for (int j = 0; j < 8 && i + j < cells; j++) {
+            if ((packed & (0x80 >>> j)) != 0) values[i + j] |= GIVEN_MASK;
+         }
+      }
+      
+      for (int i = 0; i < cells; i++) {
+         board.setRawValue(i / board.size, i % board.size, values[i]);
+      }
+      return board;
+   }
+   
+   /*
+    * Number of bits needed to store every value from 0 up to and including size.
+    */
+   private static int bitsPerValue(int size) {
+      return 32 - Integer.numberOfLeadingZeros(size);
+   }
+   
+   /*
+    * Method to be implemented in later version; will read the values from grid.
+    */
+   protected int getRawValue(int row, int col) {
+      return readCell(getIndex(row, col));
+   }
+   /*
+    * Method to be implemented in later version; will write values to grid.
+    */
+   protected void setRawValue(int row, int col, int value) {
+      int index = getIndex(row, col);
+      clearHistory();  // the board is being loaded, so earlier moves no longer apply
+      int oldValue = readCell(index) & GIVEN_UNMASK;
+      writeCell(index, value);
+      valueChanged(row, col, oldValue, value & GIVEN_UNMASK);  // let subclasses keep their bookkeeping current
+      fireCellChanged(row, col, oldValue, value & GIVEN_UNMASK, (value & GIVEN_MASK) == GIVEN_MASK);
+   }
+   
+   /**
+    * Called every time the value held in a (row, column) coordinate is replaced.  Does nothing by default; subclasses can override it to keep cached information about the board up to date.
+    * Note: Marking values as givens does not change them, so fixGivens() does not call this method.
+    * @param row The row of the value that changed.
+    * @param col The column of the value that changed.
+    * @param oldValue The value held before the change (without the given flag).
+    * @param newValue The value held after the change (without the given flag).
+    */
+   protected void valueChanged(int row, int col, int oldValue, int newValue) {
+      // nothing to keep track of in the base class
+   }
+}
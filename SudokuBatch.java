@@ -0,0 +1,356 @@
+package pratt.dan.sudoku;
+import java.io.*;  // for reading puzzles and writing solutions
+import java.nio.ByteBuffer;  // for writing fixed width solutions
+import java.nio.channels.FileChannel;  // for writing fixed width solutions in place
+import java.nio.charset.StandardCharsets;  // puzzle files are plain ASCII
+import java.util.ArrayList;  // for keeping track of the worker threads' results
+import java.util.List;
+import java.util.concurrent.*;  // for the worker threads and the queue of results
+
+/**
+ * Solves a file of puzzles without opening the game window.  One puzzle per line, and one solution is written per line in the same order.
+ * <p>
+ * Two line formats are read:
+ * <ul>
+ * <li>The common 81 character format for 3 x 3 layouts: one character per cell, row by row, with 1-9 for values and 0 or . for empty cells.</li>
+ * <li>A general format for any layout: "rows x columns:" followed by the cells.  Cells are single characters (1-9 then A-Z, the same as SudokuBase.toString())
+ * or, for boards with more than 35 values, numbers separated by commas.  For example "2x3:" followed by 36 characters.</li>
+ * </ul>
+ * Solutions are written in the same format as the puzzle.  Lines that cannot be read are answered with "invalid" and puzzles with no solution with "unsolvable".
+ * <p>
+ * Lines are read and written as they go (only a limited number of puzzles are in flight at a time), so files of any length can be solved.
+ * Each worker thread keeps its own solver and puzzle buffers.
+ * <p>
+ * Files where every line is a fixed width record with no "rows x columns:" prefix can instead be solved with "-m rows x columns" (for example "-m 3x3").
+ * The input file is memory mapped and split into one range of records per thread (see MappedPuzzleReader), and each thread writes its solutions straight into place in the output file.
+ * In this mode a puzzle with no solution, or a record that cannot be read, is answered with a record of all 0s so every record keeps its place.
+ * <p>
+ * Usage: java pratt.dan.sudoku.SudokuBatch [-t threads] [-m rows x columns] [input file [output file]]  (standard input and output are used if no files are given; -m needs both files)
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class SudokuBatch {
+
+	/** Written in place of a solution when a line cannot be read. */
+	public static final String INVALID = "invalid";
+	/** Written in place of a solution when a puzzle has no solution. */
+	public static final String UNSOLVABLE = "unsolvable";
+
+	// Number of puzzles each worker may have waiting, keeps memory use flat on huge files
+	private static final int IN_FLIGHT_PER_THREAD = 256;
+	// Number of fixed width solutions each worker collects before writing them out
+	private static final int RECORDS_PER_WRITE = 4096;
+
+	// Counts for the final report
+	private long puzzles, solved;
+
+	// Scratch space for each worker thread
+	private static final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+		@Override
+		protected Worker initialValue() {
+			return new Worker();
+		}
+	};
+
+	/**
+	 * Runs the batch solver from the command line.
+	 * @param args Optional "-t threads", then optional input and output file names.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String mappedLayout = null;  // set when -m is used
+		int next = 0;
+		while (next + 1 < args.length && args[next].startsWith("-")) {
+			if (args[next].equals("-t")) {
+				threads = Integer.parseInt(args[next + 1]);
+			} else if (args[next].equals("-m")) {
+				mappedLayout = args[next + 1];
+			} else {
+				break;
+			}
+			next += 2;
+		}
+
+		SudokuBatch batch = new SudokuBatch();
+		long start = System.nanoTime();
+		if (mappedLayout != null) {
+			if (next + 2 != args.length) throw new IllegalArgumentException("-m needs an input and an output file");
+			int x = mappedLayout.indexOf('x');
+			int rows = Integer.parseInt(mappedLayout.substring(0, x).trim());
+			int columns = Integer.parseInt(mappedLayout.substring(x + 1).trim());
+			batch.solveAll(new File(args[next]), new File(args[next + 1]), rows, columns, threads);
+		} else {
+			InputStream in = next < args.length ? new FileInputStream(args[next]) : System.in;
+			OutputStream out = next + 1 < args.length ? new FileOutputStream(args[next + 1]) : System.out;
+			try {
+				batch.solveAll(in, out, threads);
+			} finally {
+				in.close();
+				out.close();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("Solved %d of %d puzzles in %.2f s (%.0f puzzles/sec)%n",
+				batch.getSolvedCount(), batch.getPuzzleCount(), seconds, batch.getPuzzleCount() / Math.max(seconds, 1e-9));
+	}
+
+	/**
+	 * Reads every puzzle from in, solves them on a pool of threads, and writes the solutions to out in the same order.
+	 * @param in Where puzzles are read from, one per line.  Not closed.
+	 * @param out Where solutions are written, one per line.  Flushed but not closed.
+	 * @param threads Number of worker threads (must be at least 1).
+	 */
+	public void solveAll(InputStream in, OutputStream out, int threads) throws IOException, InterruptedException {
+		if (threads < 1) throw new IllegalArgumentException("Threads out of range: " + threads);
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII), 1 << 16);
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		// results in input order; the reader blocks when it gets too far ahead of the writer
+		final BlockingQueue<Future<String>> results = new ArrayBlockingQueue<Future<String>>(threads * IN_FLIGHT_PER_THREAD);
+		final Future<String> endOfInput = CompletableFuture.completedFuture(null);
+		final IOException[] readError = new IOException[1];
+
+		Thread readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (line.trim().isEmpty()) continue;  // skip blank lines
+						final String puzzleLine = line;
+						results.put(pool.submit(new Callable<String>() {
+							@Override
+							public String call() {
+								return workers.get().solveLine(puzzleLine);
+							}
+						}));
+					}
+				} catch (IOException e) {
+					readError[0] = e;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					try {
+						results.put(endOfInput);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, "SudokuBatch reader");
+		readerThread.start();
+
+		puzzles = 0;
+		solved = 0;
+		try {
+			Future<String> result;
+			while ((result = results.take()) != endOfInput) {
+				String solution = getResult(result);
+				puzzles++;
+				if (!solution.equals(INVALID) && !solution.equals(UNSOLVABLE)) solved++;
+				writer.write(solution);
+				writer.newLine();
+			}
+			writer.flush();
+		} finally {
+			pool.shutdownNow();
+			readerThread.interrupt();
+		}
+		readerThread.join();
+		if (readError[0] != null) throw readError[0];
+	}
+
+	/**
+	 * Solves a file of fixed width records (see MappedPuzzleReader) by memory mapping it and giving each thread its own range of records.
+	 * Solutions are written to the output file at the same position as their puzzle, so the output has the same record layout as the input.
+	 * @param in File of puzzles to read.
+	 * @param out File to write the solutions to.  Replaced if it exists.
+	 * @param layoutRows number of rows in each region.
+	 * @param layoutColumns number of columns in each region.
+	 * @param threads Number of worker threads (must be at least 1).
+	 */
+	public void solveAll(File in, File out, final int layoutRows, final int layoutColumns, int threads) throws IOException, InterruptedException {
+		if (threads < 1) throw new IllegalArgumentException("Threads out of range: " + threads);
+		final MappedPuzzleReader reader = new MappedPuzzleReader(in, layoutRows, layoutColumns);
+		RandomAccessFile outFile = new RandomAccessFile(out, "rw");
+		try {
+			final FileChannel output = outFile.getChannel();
+			output.truncate(0);
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			List<Future<long[]>> parts = new ArrayList<Future<long[]>>();
+			for (final MappedPuzzleReader part : reader.split(threads)) {
+				parts.add(pool.submit(new Callable<long[]>() {
+					@Override
+					public long[] call() throws IOException {
+						return solveRange(part, output, reader.getRecordLength());
+					}
+				}));
+			}
+			pool.shutdown();
+			puzzles = 0;
+			solved = 0;
+			try {
+				for (Future<long[]> part : parts) {
+					long[] counts = getResult(part);
+					puzzles += counts[0];
+					solved += counts[1];
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		} finally {
+			outFile.close();
+			reader.close();
+		}
+	}
+
+	/*
+	 * Solves one thread's range of a mapped file and writes the solutions into place.  Returns the number of puzzles read and solved.
+	 */
+	private static long[] solveRange(MappedPuzzleReader part, FileChannel output, int recordLength) throws IOException {
+		int size = part.size, cellCount = size * size;
+		int[] cells = new int[cellCount];
+		CandidateSolver solver = new CandidateSolver();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(recordLength * RECORDS_PER_WRITE);
+		long position = part.getFirstRecord() * recordLength;
+		long puzzles = 0, solved = 0;
+		while (part.hasNext()) {
+			boolean found;
+			try {
+				part.next(cells);
+				found = solver.solve(part.rows, part.columns, cells, cells);
+			} catch (IOException e) {
+				found = false;  // bad record, answer it with 0s like an unsolvable puzzle
+			}
+			puzzles++;
+			if (found) solved++;
+			for (int cell = 0; cell < cellCount; cell++) {
+				buffer.put((byte) (found ? Character.toUpperCase(Character.forDigit(cells[cell], 36)) : '0'));
+			}
+			if (recordLength - cellCount == 2) buffer.put((byte) '\r');
+			buffer.put((byte) '\n');
+			// write out a full buffer (or the last few records)
+			if (!buffer.hasRemaining() || !part.hasNext()) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					position += output.write(buffer, position);
+				}
+				buffer.clear();
+			}
+		}
+		return new long[] {puzzles, solved};
+	}
+
+	/**
+	 * Gets the number of puzzles read by the last call to solveAll.
+	 * @return Number of puzzles read.
+	 */
+	public long getPuzzleCount() {
+		return puzzles;
+	}
+
+	/**
+	 * Gets the number of puzzles solved by the last call to solveAll.
+	 * @return Number of puzzles that had a solution.
+	 */
+	public long getSolvedCount() {
+		return solved;
+	}
+
+	/*
+	 * Waits for a worker's answer.
+	 */
+	private static <T> T getResult(Future<T> result) throws InterruptedException, IOException {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			throw new IOException("Puzzle could not be solved", e.getCause());
+		}
+	}
+
+	/*
+	 * Scratch space for one worker thread: a solver and buffers sized for the last layout it saw.
+	 */
+	private static class Worker {
+		private final CandidateSolver solver = new CandidateSolver();
+		private int[] cells = new int[81];  // puzzle, then solution, one value per cell
+		private final StringBuilder text = new StringBuilder(128);
+
+		/*
+		 * Reads one line, solves it, and returns the line to write out.
+		 */
+		String solveLine(String line) {
+			line = line.trim();
+			int rows = 3, columns = 3, start = 0;
+			// a general format line starts with "rows x columns:"
+			int colon = line.indexOf(':');
+			if (colon >= 0) {
+				int x = line.indexOf('x');
+				if (x < 0 || x > colon) return INVALID;
+				try {
+					rows = Integer.parseInt(line.substring(0, x).trim());
+					columns = Integer.parseInt(line.substring(x + 1, colon).trim());
+				} catch (NumberFormatException e) {
+					return INVALID;
+				}
+				if (rows < 1 || columns < 1 || rows * columns > CandidateSolver.MAX_SIZE) return INVALID;
+				start = colon + 1;
+			}
+			int size = rows * columns, cellCount = size * size;
+			if (cells.length < cellCount) cells = new int[cellCount];
+			boolean commas = line.indexOf(',', start) >= 0;
+			if (!(commas ? readNumbers(line, start, size, cellCount) : readCharacters(line, start, size, cellCount))) return INVALID;
+			if (!solver.solve(rows, columns, cells, cells)) return UNSOLVABLE;
+
+			// write the solution back in the same format it came in
+			text.setLength(0);
+			text.append(line, 0, start);
+			for (int cell = 0; cell < cellCount; cell++) {
+				if (commas) {
+					if (cell > 0) text.append(',');
+					text.append(cells[cell]);
+				} else {
+					text.append(Character.toUpperCase(Character.forDigit(cells[cell], 36)));
+				}
+			}
+			return text.toString();
+		}
+
+		/*
+		 * Reads one character per cell.  Returns false if the line does not hold a valid puzzle.
+		 */
+		private boolean readCharacters(String line, int start, int size, int cellCount) {
+			if (line.length() - start != cellCount) return false;
+			for (int cell = 0; cell < cellCount; cell++) {
+				char c = line.charAt(start + cell);
+				int value = c == '.' ? 0 : Character.digit(c, 36);
+				if (value < 0 || value > size) return false;
+				cells[cell] = value;
+			}
+			return true;
+		}
+
+		/*
+		 * Reads comma separated numbers, empty entries count as 0.  Returns false if the line does not hold a valid puzzle.
+		 */
+		private boolean readNumbers(String line, int start, int size, int cellCount) {
+			int cell = 0, value = 0;
+			for (int i = start; i <= line.length(); i++) {
+				char c = i < line.length() ? line.charAt(i) : ',';
+				if (c == ',') {
+					if (cell >= cellCount || value > size) return false;
+					cells[cell++] = value;
+					value = 0;
+				} else if (c == '.' || c == ' ') {
+					// empty cell or spacing, nothing to add
+				} else if (c >= '0' && c <= '9') {
+					value = value * 10 + (c - '0');
+					if (value > size) return false;
+				} else {
+					return false;
+				}
+			}
+			return cell == cellCount;
+		}
+	}
+}
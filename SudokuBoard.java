@@ -13,6 +13,12 @@ package pratt.dan.sudoku;
  */
 public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 	
+	// Pinned so saves made before the class gained new members still load.
+	private static final long serialVersionUID = -7657423175591685014L;
+	
+	// Running tallies for every row, column and region.  Rebuilt from the grid after loading, so they are not saved.
+	private transient UnitCounts rowCounts, columnCounts, regionCounts;
+	
 	/**
 	 * Creates a new SudokuBoard object using given rows and columns for size of each region.
 	 * @param layoutRows number of rows in each region.
@@ -20,7 +26,7 @@ public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 	 */
 	public SudokuBoard(int layoutRows, int layoutColumns) {
 		super(layoutRows, layoutColumns);  // calls superclass version of constructor.
-		// Other constructor implementation may come in later versions.
+		rebuildCounts();  // the new grid is empty, so this just sets up the tallies.
 	}
 
 	/** 
@@ -31,7 +37,7 @@ public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 		// Check that values are within range
 		checkValidIndex(rowToCheck);
 		// returns State value of given row.
-		return checkState(getLineContents(rowToCheck, 0, true));
+		return rowCounts.getState(rowToCheck);
 	}
 
 	/**
@@ -42,7 +48,7 @@ public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 		// Check that values are within range
 		checkValidIndex(colToCheck);
 		// returns State value of given column.
-		return checkState(getLineContents(0, colToCheck, false));
+		return columnCounts.getState(colToCheck);
 	}
 	/**
 	 * {@inheritDoc}
@@ -51,51 +57,69 @@ public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 	public State getRegionState(int regionToCheck) {
 		// Check that values are within range
 		checkValidIndex(regionToCheck);
-		// Create integers for starting and ending row, column values.
-		int row, col, endRow, endCol;
-		// set starting points to use in end point calculations.  These will still be reset (to the same algorithm) in for loops.
-		row = regionToCheck / this.rows * this.rows;
-		col = regionToCheck % this.rows * this.columns; 
-		// set ending points to use in for loops.
-		endRow 	 = row + this.rows;
-		endCol 	 = col + this.columns;
-		// create array to hold values to be checked.
-		int[] contents = new int[this.size];
-		// Create array iterator for setting values
-		int i = 0;
-		for (row = regionToCheck / this.rows * this.rows; row < endRow; row++) {
-			for (col = regionToCheck % this.rows * this.columns;col < endCol; col++) {
-				contents[i] = this.getValue(row, col);  // set current array index to contents.
-				i++;  // go to next spot in contents array.
+		// returns State value of given region.
+		return regionCounts.getState(regionToCheck);
+	}
+	
+	/**
+	 * Gets the region number that a given (row, column) coordinate belongs to.  Regions are numbered left to right, top to bottom.
+	 * @param row The row of the coordinate.
+	 * @param col The column of the coordinate.
+	 * @return The region (0 up to but not including this.size) that contains the coordinate.
+	 */
+	public int getRegion(int row, int col) {
+		return row / this.rows * this.rows + col / this.columns;
+	}
+	
+	/**
+	 * Checks if the board is solved: every cell is filled in and no row, column or region has a duplicate.
+	 * Takes the same short time however big the board is, since the counts are kept up to date as values change.
+	 * @return true if every row, column and region is COMPLETE.
+	 */
+	public boolean isSolved() {
+		return rowCounts.allComplete() && columnCounts.allComplete() && regionCounts.allComplete();
+	}
+	
+	/*
+	 * Keeps the row, column and region tallies current whenever a value on the board is replaced.
+	 */
+	@Override
+	protected void valueChanged(int row, int col, int oldValue, int newValue) {
+		if (oldValue == newValue) return;  // nothing changed, so nothing to update.
+		int region = getRegion(row, col);
+		// take the old value out of every area it was counted in
+		rowCounts.remove(row, oldValue);
+		columnCounts.remove(col, oldValue);
+		regionCounts.remove(region, oldValue);
+		// and count the new value in its place
+		rowCounts.add(row, newValue);
+		columnCounts.add(col, newValue);
+		regionCounts.add(region, newValue);
+	}
+	
+	/*
+	 * Throws away the row, column and region tallies and recounts them from the values on the board.
+	 */
+	private void rebuildCounts() {
+		rowCounts = new UnitCounts(this.size);
+		columnCounts = new UnitCounts(this.size);
+		regionCounts = new UnitCounts(this.size);
+		for (int row = 0; row < this.size; row++) {
+			for (int col = 0; col < this.size; col++) {
+				int value = this.getValue(row, col);
+				rowCounts.add(row, value);
+				columnCounts.add(col, value);
+				regionCounts.add(getRegion(row, col), value);
 			}
 		}
-		// return State of given region.
-		return checkState(contents);
 	}
 	
 	/*
-	 * Helper method for checking states.
-	 * @param contentsToCheck an array of values to check.
-	 * @return The State value of checked area.  (COMPLETE, ERROR, or INCOMPLETE).
+	 * Restores the tallies after a board is loaded, since they are not written out with the rest of the board.
 	 */
-	private State checkState(int[] contentsToCheck) {
-		// Create a boolean to see if there are null values.
-		// If there are, and no errors are detected, bool will tell to report INCOMPLETE.
-		Boolean nullValues = false;
-		// Compare every element to each other.
-		for (int i = 0; i < contentsToCheck.length - 1; i++) {
-			for (int j = i + 1; j < contentsToCheck.length; j++) {
-				// if either element is 0, set boolean to show that there are holes.
-				if (contentsToCheck[i] > this.size || contentsToCheck[i] == 0
-						|| contentsToCheck[j] > this.size || contentsToCheck[j] == 0) {
-					nullValues = true;
-				} else if (contentsToCheck[i] == contentsToCheck[j]) {
-					return State.ERROR;  // returns an error as soon as a duplicate is found.
-					}
-				}
-		}
-		if (nullValues) return State.INCOMPLETE;  // if nullValues boolean was triggered because there was a hole, report INCOMPLETE.
-		return State.COMPLETE;  // If it gets this far, there are no errors and it is not incomplete, so report complete.
+	private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+		in.defaultReadObject();  // load the board itself
+		rebuildCounts();  // then count what was loaded
 	}
 	
 	/*
@@ -106,33 +130,65 @@ public class SudokuBoard extends SudokuBase implements java.io.Serializable {
 	 */
 	private void checkValidIndex (int indexToCheck) {
 		String msg = "Value out of range";
-		if ( indexToCheck > this.size || indexToCheck < 0) throw new IllegalArgumentException(msg);
+		if ( indexToCheck >= this.size || indexToCheck < 0) throw new IllegalArgumentException(msg);
 	}
 	
 	/*
-	 * Helper method for checking rows or column states.  Creates an array that will have state checked on it and returns the array.
-	 * Preconditions: Row and Column must be within range (From 0 up to but not including this.size).  These conditions are checked inside calling method.
-	 * @param row Starting row position.  If you are checking a column, this must be set to 0.
-	 * @param col Starting column position.  If you are checking a row, this must be set to 0.
-	 * @param isRow If you are checking a row, boolean must be set to true (will cause col value to be iterated).  Set to false if checking a column (will cause row value to iterated).
+	 * Keeps track of how many times each value appears in every row, column, or region (one object for each type of area),
+	 * so the State of an area can be found without looking at its cells.
 	 */
-	private int[] getLineContents(int row, int col, boolean isRow) {
-		// Create the array to fill with values.
-		int[] contents = new int[this.size];
-		// Check all positions in a given row or column.
-		for (int i = 0; i < this.size; i++) {
-			// Load value of current row, col coordinate into array.
-			contents[i] = this.getValue(row, col);
-			if (isRow) {
-				// If checking a row, iterate column by one (since we need to check every element of the given row).
-				col++;
-			} else {
-				// If checking a column, iterate he row by one (since we need to check every element of the given column).
-				row++;
-			}
+	private static class UnitCounts {
+		private final int size;  // number of areas, and number of values allowed in each one
+		private final int[] valueCounts;  // how many times each value appears, size + 1 slots per area (slot 0 is unused)
+		private final int[] filled;  // number of cells holding a valid value in each area
+		private final int[] duplicates;  // number of values that show up more than once in each area
+		private int filledTotal;  // number of cells holding a valid value, over all areas
+		private int errorAreas;  // number of areas with at least one duplicate
+		
+		UnitCounts(int size) {
+			this.size = size;
+			valueCounts = new int[size * (size + 1)];
+			filled = new int[size];
+			duplicates = new int[size];
+		}
+		
+		/*
+		 * Counts a value that was placed in the given area.  Holes (0) and values that are out of range are not counted.
+		 */
+		void add(int area, int value) {
+			if (value < 1 || value > size) return;
+			filled[area]++;
+			filledTotal++;
+			// going from one to two copies means the value is now duplicated
+			if (++valueCounts[area * (size + 1) + value] == 2 && duplicates[area]++ == 0) errorAreas++;
+		}
+		
+		/*
+		 * Stops counting a value that was removed from the given area.
+		 */
+		void remove(int area, int value) {
+			if (value < 1 || value > size) return;
+			filled[area]--;
+			filledTotal--;
+			// going from two copies to one means the value is no longer duplicated
+			if (--valueCounts[area * (size + 1) + value] == 1 && --duplicates[area] == 0) errorAreas--;
+		}
+		
+		/*
+		 * Reports ERROR if anything is duplicated, INCOMPLETE if there are holes, and COMPLETE otherwise.
+		 */
+		State getState(int area) {
+			if (duplicates[area] > 0) return State.ERROR;
+			if (filled[area] < size) return State.INCOMPLETE;
+			return State.COMPLETE;
+		}
+		
+		/*
+		 * Tells if every area is COMPLETE, without looking at the areas one by one.
+		 */
+		boolean allComplete() {
+			return errorAreas == 0 && filledTotal == size * size;
 		}
-		// give the completed array of values back to calling method.
-		return contents;
 	}
 
 }
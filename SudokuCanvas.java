@@ -0,0 +1,260 @@
+package pratt.dan.sudoku;
+// awt imports
+import java.awt.*; // import for color, dimension, drawing, etc.
+import java.awt.event.*; // import for handling mouse clicks
+
+// swing imports
+import javax.swing.border.BevelBorder;  // for the bevel type constants
+import javax.swing.border.Border;  // cell borders
+import javax.swing.BorderFactory;  // import to create borders
+import javax.swing.JComponent;  // the whole board is one component
+
+
+/**
+ * Draws the whole Sudoku board as a single component, instead of one JPanel for every cell as SudokuView does.
+ * Large boards (a 36 x 36 board has 1296 cells) stay quick to lay out and paint.  Clicks are turned into a cell by dividing by the cell size.
+ * Looks and behaves the same as SudokuView, so SudokuMain can use either one.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public class SudokuCanvas extends JComponent implements NumericSupport, SelectedCell, CellListener {
+	/* Constants */
+
+	// Class constant for preferred sizes
+	private static final int CELL_SIZE = 50; // cells are squares, so only one int is needed to represent both sides.
+
+	// Class constants for board colors (same as SudokuView)
+	private static final Color lightBackground = new Color(0, 151, 172);  // darker color for board fill
+	private static final Color darkBackground = new Color(0, 121, 150);  // lighter color for board fill
+	private static final Color selectedBackground = new Color(34, 85, 51);  // fill color when cell is selected
+
+	// Cell borders for each background.  A bevel border takes its colors from the component it is drawn on, so the colors
+	// a SudokuView cell would get from its own background are worked out here once instead.
+	private static final Border lightBorder = cellBorder(lightBackground);
+	private static final Border darkBorder = cellBorder(darkBackground);
+	private static final Border selectedBorder = cellBorder(selectedBackground);
+
+	/* Fields */
+
+	// Selector location
+	private int selectedRow, selectedCol; // placeholder for selected row and column.
+
+	// Class board field
+	private final SudokuBoard sudokuBoard;  // Model that this view class represents
+	private final Color[] cellBackgrounds;  // background of every cell when it is not selected, row by row
+
+	// Drawing
+	private final GlyphCache glyphs = new GlyphCache();  // numbers and symbols drawn once at the current cell size
+	private final Rectangle clip = new Rectangle();  // reused so painting does not create a Rectangle every time
+
+	// Flag variables
+	private boolean isNumeric;  // is true if isNumeric box is checked, will cause numeric values to be displayed.
+
+	/**
+	 * Creates a new SudokuCanvas object that provides a graphical view of a SudokuBoard model object.
+	 * @param board the SudokuBoard (model) object that will be represented graphically.
+	 */
+	public SudokuCanvas(SudokuBase board) {
+		sudokuBoard = (SudokuBoard)board;  // attach model
+		setPreferredSize(new Dimension(board.size * CELL_SIZE, board.size * CELL_SIZE));
+		setOpaque(true);  // every pixel is painted
+
+		// work out the region colors once
+		cellBackgrounds = new Color[board.size * board.size];
+		for (int row = 0; row < board.size; row++) {
+			for (int col = 0; col < board.size; col++) {
+				int region = (row / board.rows * board.rows) + (col / board.columns);
+				cellBackgrounds[row * board.size + col] = SudokuView.regionBackground(board, region);
+			}
+		}
+
+		// select the cell that was clicked on
+		addMouseListener( new MouseAdapter() {
+			public void mousePressed(MouseEvent e) {
+				int row = rowAt(e.getY()), col = columnAt(e.getX());
+				if (row >= 0 && col >= 0) setSelected(row, col);
+			}
+		});
+	}
+
+	/**
+	 * Starts listening to the model for cell changes once the view is shown.
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		sudokuBoard.addCellListener(this);  // repaint cells as they change
+	}
+
+	/**
+	 * Stops listening to the model once the view is taken off the screen, so a replaced view is not kept around by its model.
+	 */
+	@Override
+	public void removeNotify() {
+		sudokuBoard.removeCellListener(this);
+		super.removeNotify();
+	}
+
+	/* (non-Javadoc)
+	 * @see CellListener#cellChanged(SudokuBase, int, int, int, int, boolean)
+	 */
+	@Override
+	public void cellChanged(SudokuBase board, int row, int col, int oldValue, int newValue, boolean given) {
+		repaintCell(row, col);  // only the changed cell needs to be drawn again
+	}
+
+	/* (non-Javadoc)
+	 * @see SelectedCell#setSelected(int, int)
+	 */
+	@Override
+	public void setSelected(int row, int col) {
+		if (row == selectedRow && col == selectedCol) return;  // nothing to redraw
+		int oldRow = selectedRow, oldCol = selectedCol;
+		selectedRow = row;  // set row
+		selectedCol = col;  // set column
+		// redraw the cell that lost the selection and the one that gained it
+		repaintCell(oldRow, oldCol);
+		repaintCell(row, col);
+	}
+
+	/* (non-Javadoc)
+	 * @see SelectedCell#getSelectedRow()
+	 */
+	@Override
+	public int getSelectedRow() {
+		return selectedRow;  // return currently selected row
+	}
+
+	/* (non-Javadoc)
+	 * @see SelectedCell#getSelectedColumn()
+	 */
+	@Override
+	public int getSelectedColumn() {
+		return selectedCol;  // return currently selected column
+	}
+
+	/* (non-Javadoc)
+	 * @see NumericSupport#setNumeric(boolean)
+	 */
+	@Override
+	public void setNumeric(boolean flag) {
+		isNumeric = flag;
+		glyphs.setNumeric(flag);  // the cached numbers or symbols are no longer the right ones
+		repaint();  // every cell looks different now
+	}
+
+	/* (non-Javadoc)
+	 * @see NumericSupport#showsNumeric()
+	 */
+	@Override
+	public boolean showsNumeric() {
+		return isNumeric;  // returns current state of isNumeric
+	}
+
+	/**
+	 * Draws every cell that needs painting: its background (by region, or the selected color), its border, and its value.
+	 */
+	@Override
+	protected void paintComponent(Graphics g) {
+		int size = sudokuBoard.size;
+		int cellWidth = cellWidth(), cellHeight = cellHeight();
+		if (cellWidth <= 0 || cellHeight <= 0) return;
+		int left = leftEdge(), top = topEdge();
+
+		// fill the space left around the cells
+		g.setColor(darkBackground);
+		g.fillRect(0, 0, getWidth(), getHeight());
+
+		// only draw the cells inside the area being repainted
+		clip.setBounds(0, 0, getWidth(), getHeight());  // kept if there is no clip
+		g.getClipBounds(clip);
+		int firstRow = Math.max(0, (clip.y - top) / cellHeight), lastRow = Math.min(size - 1, (clip.y + clip.height - 1 - top) / cellHeight);
+		int firstCol = Math.max(0, (clip.x - left) / cellWidth), lastCol = Math.min(size - 1, (clip.x + clip.width - 1 - left) / cellWidth);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = firstCol; col <= lastCol; col++) {
+				int x = left + col * cellWidth, y = top + row * cellHeight;
+				boolean selected = row == selectedRow && col == selectedCol;
+				Color background = selected ? selectedBackground : cellBackgrounds[row * size + col];
+				g.setColor(background);
+				g.fillRect(x, y, cellWidth, cellHeight);
+				borderFor(background).paintBorder(this, g, x, y, cellWidth, cellHeight);
+
+				// draw the value, as a number or a Mayan symbol
+				int value = sudokuBoard.getValue(row, col);
+				if (value != 0) {
+					g.translate(x, y);
+					glyphs.draw(g, value, sudokuBoard.isGiven(row, col), cellWidth, cellHeight);
+					g.translate(-x, -y);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Repaints one cell, if it is on the board.
+	 */
+	private void repaintCell(int row, int col) {
+		if (row >= 0 && row < sudokuBoard.size && col >= 0 && col < sudokuBoard.size) {
+			repaint(leftEdge() + col * cellWidth(), topEdge() + row * cellHeight(), cellWidth(), cellHeight());
+		}
+	}
+
+	/*
+	 * Finds the row under a y position, or -1 if it is off the board.
+	 */
+	private int rowAt(int y) {
+		int offset = y - topEdge();
+		if (offset < 0 || cellHeight() <= 0) return -1;
+		int row = offset / cellHeight();
+		return row < sudokuBoard.size ? row : -1;
+	}
+
+	/*
+	 * Finds the column under an x position, or -1 if it is off the board.
+	 */
+	private int columnAt(int x) {
+		int offset = x - leftEdge();
+		if (offset < 0 || cellWidth() <= 0) return -1;
+		int col = offset / cellWidth();
+		return col < sudokuBoard.size ? col : -1;
+	}
+
+	/*
+	 * Cell sizes and the space left over around the cells, which is split evenly on both sides (as GridLayout does for SudokuView).
+	 */
+	private int cellWidth() {
+		return getWidth() / sudokuBoard.size;
+	}
+
+	private int cellHeight() {
+		return getHeight() / sudokuBoard.size;
+	}
+
+	private int leftEdge() {
+		return (getWidth() - cellWidth() * sudokuBoard.size) / 2;
+	}
+
+	private int topEdge() {
+		return (getHeight() - cellHeight() * sudokuBoard.size) / 2;
+	}
+
+	/*
+	 * Gets the cell border made for a background color.
+	 */
+	private static Border borderFor(Color background) {
+		if (background == selectedBackground) return selectedBorder;
+		return background == lightBackground ? lightBorder : darkBorder;
+	}
+
+	/*
+	 * Creates the raised then lowered bevel border SudokuView cells get, with the colors a bevel border would pick for the given background.
+	 */
+	private static Border cellBorder(Color background) {
+		Color highlightOuter = background.brighter().brighter(), highlightInner = background.brighter();
+		Color shadowOuter = background.darker().darker(), shadowInner = background.darker();
+		return BorderFactory.createCompoundBorder(
+				BorderFactory.createBevelBorder(BevelBorder.RAISED, highlightOuter, highlightInner, shadowOuter, shadowInner),
+				BorderFactory.createBevelBorder(BevelBorder.LOWERED, highlightOuter, highlightInner, shadowOuter, shadowInner));
+	}
+}
@@ -1,9 +1,24 @@
 package pratt.dan.sudoku;
-import java.io.File;  // for using File objects
+import java.io.*;  // for File objects and reading and writing the index
+import java.nio.ByteBuffer;  // the index, ready to be written
+import java.util.ArrayList;  // pages of recent save files
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;  // recent save files, least recently used first
+import java.util.List;
 
 /**
- * This class keeps track of the MRU data so that users can load the last played game (without needing to save) and keeps track of up to the last 4 games played.
- * 
+ * This class keeps track of the MRU data so that users can load the last played game (without needing to save) and keeps track of the recent save files.
+ * <p>
+ * The MRU is kept in two files.  A small index file holds the recent save files, each with when it was saved, its board layout, and how much of it
+ * was filled in, and is read when the game starts.  The last game played is kept in a separate file in the compact save format, and is only read
+ * the first time getLastGame() is called.  MRU files written by older versions, which held the whole last game, are still read.
+ * <p>
+ * Save files are kept in a map in least recently used order, so adding, moving to the top, removing and looking up a file each take the same
+ * short time however many files are kept.  Once there are more than the capacity, the least recently used file is dropped.
+ * The index file is written as a list of changes (file added or moved to the top, file removed), so each change only adds a few bytes to its end;
+ * once the changes are more than twice the files, the whole index is written again.
+ *
  * Level: Challenge
  * @author Dan Pratt
  * @version Assignment 7: Sudoku Serialization/Integration
@@ -11,105 +26,452 @@ import java.io.File;  // for using File objects
  */
 public class SudokuMRU implements java.io.Serializable {
 
+	// Pinned so MRU files written before the index format still load.
+	private static final long serialVersionUID = -6908247888453552604L;
+
+	// The fields MRU files written by older versions hold
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("lastOpenGame", SudokuBoard.class),
+		new ObjectStreamField("numberOfSaves", int.class),
+		new ObjectStreamField("fileList", File[].class)
+	};
+
+	/** Number of save files kept when no capacity is given. */
+	public static final int DEFAULT_CAPACITY = 200;
+
+	// Constants for the index file
+	private static final int INDEX_MAGIC = 0x53444B4D;  // "SDKM", marks an index file
+	private static final byte LIST_VERSION = 1;  // index written as one list of files, most recent first
+	private static final byte CHANGES_VERSION = 2;  // index written as a list of changes, replayed in order
+	private static final byte ADD_FILE = 1;  // change: a file was added or moved to the top
+	private static final byte REMOVE_FILE = 2;  // change: a file was removed
+
+	// Number of save files older versions could show
+	private static final int OLD_SAVE_FILES = 4;
+
+	// Changes the index file may hold beyond twice the number of files before it is written whole
+	private static final int SPARE_CHANGES = 16;
+
 	// Declare fields that class will keep track of
-	private SudokuBoard lastOpenGame;  // keeps track of the last game that was being played (does not load from save game file).
-	private int numberOfSaves;  // will let GUI know how many save game files can be loaded
-	private File[] fileList = new File[4];  // array of files (can be up to four) of the save games
-	
-	private static final int MAX_SAVE_FILES = 4;
-	
+	private transient int capacity = DEFAULT_CAPACITY;  // most save files kept
+	private transient LinkedHashMap<File, Entry> entries = createEntries();  // save files, least recently used first
+	private transient SudokuBoard lastOpenGame;  // keeps track of the last game that was being played (does not load from save game file).
+	private transient File lastGameFile;  // file to read lastOpenGame from the first time it is asked for, null once it has been read
+
+	// Changes not yet written to the index file
+	private transient ByteArrayOutputStream changes = new ByteArrayOutputStream();
+	private transient DataOutputStream changeLog = new DataOutputStream(changes);
+	private transient int changesInFile;  // changes the index file holds, counting those not written yet
+	private transient boolean wholeIndexNeeded = true;  // true if the index file has to be written whole (it is missing or in an older format)
+
+	/**
+	 * Creates an MRU with no save files.
+	 * @param game The game being played.
+	 */
 	public SudokuMRU(SudokuBoard game) {
 		lastOpenGame = game;  // set the game
 	}
-	
+
+	/**
+	 * Reads the MRU index.  The last game is not read until getLastGame() is called.
+	 * Also reads MRU files written by older versions, which hold the last game themselves.
+	 * @param indexFile The index file.
+	 * @param lastGame The file the last game is kept in.
+	 * @param capacity Most save files to keep.  If the index holds more, the least recently used are dropped.
+	 * @return The MRU.
+	 * @throws IOException If the index cannot be read.
+	 */
+	public static SudokuMRU read(File indexFile, File lastGame, int capacity) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+		SudokuMRU mru;
+		try {
+			in.mark(4);
+			if (in.readInt() != INDEX_MAGIC) {
+				// written by an older version, as a whole serialized object
+				in.reset();
+				ObjectInputStream old = new ObjectInputStream(in);
+				try {
+					mru = (SudokuMRU) old.readObject();
+				} catch (ClassNotFoundException e) {
+					throw new IOException("Not a Sudoku MRU file", e);
+				} catch (ClassCastException e) {
+					throw new IOException("Not a Sudoku MRU file", e);
+				}
+			} else {
+				byte version = in.readByte();
+				mru = new SudokuMRU(null);
+				mru.lastGameFile = lastGame;
+				if (version == LIST_VERSION) {
+					mru.readList(in);
+				} else if (version == CHANGES_VERSION) {
+					mru.readChanges(in);
+				} else {
+					throw new IOException("Unsupported MRU file version: " + version);
+				}
+			}
+		} finally {
+			in.close();
+		}
+		mru.setCapacity(capacity);  // files dropped here are written as removed with the next changes
+		return mru;
+	}
+
+	/**
+	 * Packs the whole index (the save files and what is known about them) for writing to the index file, replacing what was there.
+	 * The last game is not included; save it to its own file with the compact save format.
+	 * @return The index, ready to be written.
+	 */
+	public ByteBuffer encodeIndex() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeInt(INDEX_MAGIC);
+			out.writeByte(CHANGES_VERSION);
+			for (Entry entry : entries.values()) {
+				writeAdd(out, entry);  // least recently used first, so reading them back in order gives the same order
+			}
+			out.close();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);  // cannot happen when writing to memory
+		}
+		changes.reset();
+		changesInFile = entries.size();
+		wholeIndexNeeded = false;
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	/**
+	 * Tells if the index file has to be written whole with encodeIndex(), rather than just having the latest changes added to it:
+	 * when it has not been written in the current format yet, or when it holds more than twice as many changes as files.
+	 * @return true if encodeIndex() should be written instead of takeIndexChanges().
+	 */
+	public boolean needsWholeIndex() {
+		return wholeIndexNeeded || changesInFile > 2 * entries.size() + SPARE_CHANGES;
+	}
+
+	/**
+	 * Takes the changes made since the index was last written, ready to be added to the end of the index file.
+	 * @return The changes, or null if there are none.
+	 */
+	public ByteBuffer takeIndexChanges() {
+		if (changes.size() == 0) return null;
+		ByteBuffer taken = ByteBuffer.wrap(changes.toByteArray());
+		changes.reset();
+		return taken;
+	}
+
 	/**
 	 * Saves the board object when called to be loaded in the future.
 	 * @param lastGame SudokuBoard object to be saved
 	 */
 	public void setLastGame(SudokuBoard lastGame) {
-		lastOpenGame = lastGame;   // update the board object. 
+		lastOpenGame = lastGame;   // update the board object.
+		lastGameFile = null;  // nothing left to read
 	}
-	
+
 	/**
-	 * Provides access to game model saved inside MRU file
-	 * @return SudokuBoard model of last game played
+	 * Provides access to game model saved inside MRU file.  Reads it from its file the first time it is called.
+	 * @return SudokuBoard model of last game played, or null if there is none or it cannot be read.
 	 */
 	public SudokuBoard getLastGame() {
+		if (lastGameFile != null) {
+			try {
+				lastOpenGame = SudokuBase.readBoard(lastGameFile);
+			} catch (IOException e) {
+				lastOpenGame = null;  // missing or damaged, so there is no last game
+			}
+			lastGameFile = null;
+		}
 		return lastOpenGame;
 	}
-	
+
+	/**
+	 * Changes the number of save files kept.  If there are more, the least recently used are dropped.
+	 * @param capacity Most save files to keep (at least 1).
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("Capacity out of range: " + capacity);
+		this.capacity = capacity;
+		Iterator<File> leastRecent = entries.keySet().iterator();
+		while (entries.size() > capacity) {
+			File dropped = leastRecent.next();
+			leastRecent.remove();
+			logRemove(dropped);
+		}
+	}
+
+	/**
+	 * Gets the number of save files kept.
+	 * @return Most save files kept.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
 	/**
-	 * Provides list of filenames saved in MRU list object
-	 * @return File[] array of files stored in MRU list.
+	 * Provides a page of the save files with what is known about them, most recent first.
+	 * @param first Number of files to skip, starting from the most recent.
+	 * @param count Most files to return.
+	 * @return Up to count files.
 	 */
-	public File[] getMruFiles() {
-		return fileList;
+	public List<Entry> getEntries(int first, int count) {
+		if (first < 0 || count < 0) throw new IllegalArgumentException("Page out of range");
+		int end = Math.min(entries.size(), first + count);
+		ArrayList<Entry> page = new ArrayList<Entry>(Math.max(0, end - first));
+		if (first >= end) return page;
+		// the map runs from least to most recent, so the page is found counting back from the end
+		int skip = entries.size() - end, position = 0;
+		for (Entry entry : entries.values()) {
+			if (position >= skip) page.add(entry);
+			if (++position == entries.size() - first) break;
+		}
+		Collections.reverse(page);
+		return page;
 	}
-	
+
 	/**
-	 * Adds a file to the list of save files to show in MRU list.  Only allows for up to 4, and reorders list so most recent save is first.
+	 * Adds a file to the list of save files to show in MRU list, or moves it to the top if it is already there.
+	 * Keeps what was known about the file if it was already in the list.
 	 * @param file File to add to list.
 	 */
 	public void addFileToSaveList(File file) {
-		// Take care of the new file insertion
-		// It doesn't matter if the list is empty and it shifts a null value up one.
-		File nextFile = fileList[0];
-		fileList[0] = file;
-		if ( numberOfSaves < MAX_SAVE_FILES ) numberOfSaves++;  // as long as the max number of saved files has not been reached, increment the number of saves.
-		for ( int i = 1; i < numberOfSaves ; i++	) {
-			if ( i == MAX_SAVE_FILES ) break;  // limit the number of save files to four
-			File tempFile = fileList[i];  // take the value out of the current location
-			fileList[i] = nextFile;  // add the held value to the current location
-			nextFile = tempFile;  // queue the temp file to be the next to be placed into the list.
-		}
-		
+		Entry known = entries.get(file);  // moves it to the top, if it is there
+		addEntry(known != null ? known : new Entry(file, 0, 0, 0, 0));
+	}
+
+	/**
+	 * Adds a file that was just saved to the list of save files to show in MRU list, along with the board's layout and how much of it is filled in.
+	 * Moves it to the top if it is already there.
+	 * @param file File to add to list.
+	 * @param board The game saved in the file.
+	 */
+	public void addFileToSaveList(File file, SudokuBase board) {
+		addEntry(new Entry(file, System.currentTimeMillis(), board.rows, board.columns, percentFilled(board)));
 	}
-	
+
 	/**
 	 * Checks the number of save files held inside SudokuMRU object
 	 * @return int value representing the number of save files held in SudokuMRU object.
 	 */
 	public int getNumberOfSaves() {
-		return numberOfSaves;
+		return entries.size();
 	}
-	
+
 	/**
 	 * If a file no longer exists, it can be removed from the list of saved files.
 	 * @param file File to be removed from MRU.
 	 */
 	public void removeFileFromSaveList(File file) {
-		for (int i = 0; i < numberOfSaves; i++) {
-			if (fileList[i].equals(file)) {
-				fileList[i] = null;
+		if (entries.remove(file) != null) logRemove(file);
+	}
+
+	/**
+	 * Checks to see if a file exists in the MRU list.  Files with the same path match, even if they are different File objects.
+	 * Does not move the file to the top.
+	 * @param file File to be checked
+	 * @return true if file exists, false if it does not
+	 */
+	public boolean doesFileExist(File file) {
+		return entries.containsKey(file);
+	}
+
+	/*
+	 * Puts an entry at the top of the list, replacing any entry for the same file and dropping the least recently used past the capacity.
+	 */
+	private void addEntry(Entry entry) {
+		entries.put(entry.file, entry);  // a file already in the map moves to the top
+		try {
+			writeAdd(changeLog, entry);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);  // cannot happen when writing to memory
+		}
+		changesInFile++;
+		setCapacity(capacity);  // drop the least recently used, if there are too many now
+	}
+
+	/*
+	 * Notes that a file was removed, for the index file.
+	 */
+	private void logRemove(File file) {
+		try {
+			changeLog.writeByte(REMOVE_FILE);
+			changeLog.writeUTF(file.getPath());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);  // cannot happen when writing to memory
+		}
+		changesInFile++;
+	}
+
+	/*
+	 * Writes one "file added or moved to the top" change.
+	 */
+	private static void writeAdd(DataOutputStream out, Entry entry) throws IOException {
+		out.writeByte(ADD_FILE);
+		out.writeUTF(entry.file.getPath());
+		out.writeLong(entry.savedTime);
+		out.writeByte(entry.rows);
+		out.writeByte(entry.columns);
+		out.writeByte(entry.percentFilled);
+	}
+
+	/*
+	 * Reads an index written as a list of files, most recent first.
+	 */
+	private void readList(DataInputStream in) throws IOException {
+		int count = in.readUnsignedByte();
+		Entry[] list = new Entry[count];
+		for (int i = 0; i < count; i++) {
+			list[i] = readEntry(in);
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			entries.put(list[i].file, list[i]);  // least recent first
+		}
+		// wholeIndexNeeded stays set, so the index is written again in the current format
+	}
+
+	/*
+	 * Reads an index written as a list of changes, replaying them in order.  A change cut off at the end of the file, or one that cannot be read,
+	 * ends the list; the changes before it are kept, and the index is written whole next time so nothing is added after the bad bytes.
+	 */
+	private void readChanges(DataInputStream in) throws IOException {
+		wholeIndexNeeded = false;
+		int change;
+		while ((change = in.read()) >= 0) {
+			try {
+				if (change == ADD_FILE) {
+					Entry entry = readEntry(in);
+					entries.remove(entry.file);  // so it goes in at the top
+					entries.put(entry.file, entry);
+				} else if (change == REMOVE_FILE) {
+					entries.remove(new File(in.readUTF()));
+				} else {
+					wholeIndexNeeded = true;  // not a change this version writes, so the rest cannot be trusted
+					break;
+				}
+			} catch (EOFException e) {
+				wholeIndexNeeded = true;  // the last change was cut short
+				break;
+			} catch (UTFDataFormatException e) {
+				wholeIndexNeeded = true;  // a damaged file name
 				break;
 			}
+			changesInFile++;
 		}
-		File[] tempFiles = new File[4];
-		int tc = 0;
-		for (int i = 0; i < numberOfSaves; i++) {
-			if (fileList[i] != null) {
-				tempFiles[tc] = fileList[i];
-				tc++;
+	}
+
+	/*
+	 * Reads one save file and what is known about it.
+	 */
+	private static Entry readEntry(DataInputStream in) throws IOException {
+		File file = new File(in.readUTF());
+		long savedTime = in.readLong();
+		int rows = in.readUnsignedByte(), columns = in.readUnsignedByte(), percentFilled = in.readUnsignedByte();
+		return new Entry(file, savedTime, rows, columns, percentFilled);
+	}
+
+	/*
+	 * Creates the map of save files, in least recently used order.
+	 */
+	private static LinkedHashMap<File, Entry> createEntries() {
+		return new LinkedHashMap<File, Entry>(16, 0.75f, true);
+	}
+
+	/*
+	 * Percentage of the cells on a board that hold a value.
+	 */
+	private static int percentFilled(SudokuBase board) {
+		int filled = 0;
+		for (int row = 0; row < board.size; row++) {
+			for (int col = 0; col < board.size; col++) {
+				if (board.getValue(row, col) != 0) filled++;
 			}
 		}
-		numberOfSaves--;
-		fileList = new File[4];
-		for(int i = 0; i < numberOfSaves; i++) {
-			fileList[i] = tempFiles[i];
+		return filled * 100 / (board.size * board.size);
+	}
+
+	/*
+	 * Reads an MRU file written by an older version.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		lastOpenGame = (SudokuBoard) fields.get("lastOpenGame", null);
+		capacity = DEFAULT_CAPACITY;
+		entries = createEntries();
+		changes = new ByteArrayOutputStream();
+		changeLog = new DataOutputStream(changes);
+		wholeIndexNeeded = true;  // so the index is written again in the current format
+		File[] fileList = (File[]) fields.get("fileList", null);
+		int numberOfSaves = fields.get("numberOfSaves", 0);
+		for (int i = Math.min(numberOfSaves, fileList == null ? 0 : fileList.length) - 1; i >= 0; i--) {
+			if (fileList[i] != null) entries.put(fileList[i], new Entry(fileList[i], 0, 0, 0, 0));  // least recent first
+		}
+	}
+
+	/*
+	 * Writes the MRU in the form older versions read, with the four most recent save files.  The game writes the index instead (see encodeIndex).
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		File[] fileList = new File[OLD_SAVE_FILES];
+		List<Entry> recent = getEntries(0, OLD_SAVE_FILES);
+		for (int i = 0; i < recent.size(); i++) {
+			fileList[i] = recent.get(i).file;
 		}
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("lastOpenGame", getLastGame());
+		fields.put("numberOfSaves", recent.size());
+		fields.put("fileList", fileList);
+		out.writeFields();
 	}
-	
+
 	/**
-	 * Checks to see if a file exists in the MRU list
-	 * @param file File to be checked
-	 * @return true if file exists, false if it does not
+	 * A save file in the MRU list, with what was known about it when it was saved.
 	 */
-	public boolean doesFileExist(File file) {
-		for (int i = 0; i < numberOfSaves; i++) {
-			if (fileList[i] == file) return true;  // match found, so return true.
+	public static final class Entry {
+		private final File file;
+		private final long savedTime;
+		private final int rows, columns, percentFilled;
+
+		Entry(File file, long savedTime, int rows, int columns, int percentFilled) {
+			this.file = file;
+			this.savedTime = savedTime;
+			this.rows = rows;
+			this.columns = columns;
+			this.percentFilled = percentFilled;
+		}
+
+		/**
+		 * @return The save file.
+		 */
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * @return When the file was saved (milliseconds since 1970), or 0 if not known.
+		 */
+		public long getSavedTime() {
+			return savedTime;
+		}
+
+		/**
+		 * @return Number of rows in each region of the saved board, or 0 if not known.
+		 */
+		public int getRows() {
+			return rows;
+		}
+
+		/**
+		 * @return Number of columns in each region of the saved board, or 0 if not known.
+		 */
+		public int getColumns() {
+			return columns;
+		}
+
+		/**
+		 * @return Percentage of the cells that were filled in when the file was saved (0 - 100).
+		 */
+		public int getPercentFilled() {
+			return percentFilled;
 		}
-		return false;  // wasn't found, so return false
 	}
-	
-	
-}
\ No newline at end of file
+}
@@ -4,18 +4,16 @@ import java.awt.event.*;  // import for event handling
 
 import javax.swing.*;    // import for graphics
 
-import java.awt.BasicStroke;   // for setting stroke in graphics 2d
 import java.awt.BorderLayout;  // import for BorderLayout functionality
 import java.awt.Color;         // for coloring items
 import java.awt.Dimension;     // for setting up dimensions
-import java.awt.Font;         // for setting font
 import java.awt.Graphics;    // for drawing
-import java.awt.Graphics2D;  // to use graphics 2d to draw.
 import java.awt.GridLayout;  // layout manager
 import java.awt.Toolkit;    // for annoying beep sound.
 import java.io.*;  // for file save / load functions.
 import java.util.Observable;  // for implementing observer
 import java.util.Observer;   // for implementing observers
+import java.util.function.BiConsumer;  // for handling the results of saves and loads
 
 import javax.swing.border.Border;  // import to create compound border
 import javax.swing.filechooser.FileNameExtensionFilter;  // for filtering file extensions when saving / loading a game.
@@ -41,18 +39,33 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	// Field that holds init details
 	private SudokuMRU mruModel;  // placeholder for loading functions that will load last game being played / saved games list.
 	
+	// Puzzles generated in the background so Quick Start doesn't have to wait
+	private final PuzzlePool puzzlePool = new PuzzlePool(POOL_BYTES, POOL_PUZZLES, 1);
+	
+	// Saves and loads files on a background thread so a slow disk doesn't freeze the window
+	private final GameStorage storage = new GameStorage();
+	
+	// Writes the changes to the current game in the background as it is played
+	private final AutoSave autoSave = new AutoSave(AUTOSAVE_FILE, AUTOSAVE_MILLIS, AUTOSAVE_MOVES);
+	
+	// Numbers and symbols for the tool-bar, drawn once at the button size
+	private final GlyphCache toolbarGlyphs = new GlyphCache();
+	
 	// Field to keep track of view
-	private SudokuView gameView;  // The game View object
+	private JComponent gameView;  // The game View object (a SudokuView, or a SudokuCanvas if the single panel board is chosen)
+	private SelectedCell selectedCell;  // the game View, for moving the selection
+	private boolean singlePanelBoard;  // if true the board is drawn by one SudokuCanvas instead of a SudokuView with a panel per cell
 	private CompletionView completionView;  //  The view that allows user to see completion of board
 	
 	// Field to keep track of files
 	private File saveFile = null;  // last saved file;
-	// MRU Files
-	private File[] mruFileList;  // array for all files to be passed into
-	private File mruFileOne = null;
-	private File mruFileTwo = null;
-	private File mruFileThree = null;
-	private File mruFileFour = null;
+	// Recent games menu, showing one page of the MRU list at a time
+	private JMenu recentMenu;  // the recent games sub menu in the file menu
+	private final JMenuItem[] recentGameCmds = new JMenuItem[RECENT_PAGE_SIZE];  // the items for the page being shown, reused for every page
+	private final File[] recentGameFiles = new File[RECENT_PAGE_SIZE];  // file each item loads, null if the item is hidden
+	private JMenuItem recentPreviousCmd, recentMoreCmd;  // move to the page before or after
+	private JSeparator recentPagingSeparator;  // spacer between the games and the paging items
+	private int recentFirst = 0;  // place in the MRU list of the first game shown
 	
 	// Field to set trigger for when game is won
 	private boolean gameWon = false;
@@ -60,7 +73,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	// Constant values
 	private static final int WIDTH = 800;  // height of window
 	private static final int HEIGHT  = 600;  // width of window
-	private static final Color artColor = new Color(177, 221, 161); // Color of regular values
 	private static final Color lightBackground = new Color(0, 151, 172);  // darker color for board fill
 	private static final Color darkBackground = new Color(0, 121, 150);  // lighter color for board fill
 	private static final Color selectedBackground = new Color(34, 85, 51);  // fill color when cell is selected
@@ -69,11 +81,26 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	// Constant for holding current version to display in about
 	private static final String version = "Version 0.7";
 	
-	// Font used in numeric version
-	private static final Font numeric 	 = new Font("Serif", Font.PLAIN, 18);  // regular inputs
+	// Tool-bar border, created once instead of on every paint
+	private static final Border BUTTON_BORDER = BorderFactory.createCompoundBorder(
+			BorderFactory.createRaisedBevelBorder(), BorderFactory.createLoweredBevelBorder());  // compound border to create a cool effect, shared by every button
 	
 	// Init file used for MRU
-	private static final File MRU_FILE = new File("sudoku.mru");
+	private static final File MRU_FILE = new File("sudoku.mru");  // small index of recent save files, read at startup
+	private static final File LAST_GAME_FILE = new File("sudoku.last");  // last game played, only read if there is no autosave
+	private static final int MRU_CAPACITY = SudokuMRU.DEFAULT_CAPACITY;  // most recent save files remembered
+	private static final int RECENT_PAGE_SIZE = 9;  // recent games shown at once, so each has a number key 1 - 9
+	
+	// Autosave of the current game, so moves survive the game being killed
+	private static final File AUTOSAVE_FILE = new File("sudoku.autosave");
+	private static final long AUTOSAVE_MILLIS = 2000;  // longest a move waits before it is saved
+	private static final int AUTOSAVE_MOVES = 20;  // moves that are saved right away without waiting
+	private static final long QUIT_WAIT_MILLIS = 5000;  // longest quitting waits for the autosave to finish
+	
+	// Limits for the pool of ready made puzzles
+	private static final long POOL_BYTES = 1 << 20;  // at most 1 MB of puzzles
+	private static final int POOL_PUZZLES = 32;  // puzzles to keep ready for each board size
+	private static final PuzzleGenerator.Difficulty QUICK_START_DIFFICULTY = PuzzleGenerator.Difficulty.MEDIUM;
 	
 	// Shared UI Components
 	private JFrame game;  // the entire game view
@@ -82,22 +109,24 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	private JMenuBar gameMenu;  // the menu bard
 	private JMenu fileMenu, optionsMenu, aboutMenu;  // the individual menus
 	private JMenuItem newGameCmd, saveGameCmd, saveAsGameCmd, loadGameCmd, quitGameCmd, helpGameCmd, aboutGameCmd, resetGameCmd,
-				loadMruOneCmd, loadMruTwoCmd, loadMruThreeCmd, loadMruFourCmd; // menu options in file menu
+				undoGameCmd, redoGameCmd; // menu options in file menu
 	private JCheckBoxMenuItem showNumeric;  // checkbox menu item that allows user to turn on and off numeric display
+	private JCheckBoxMenuItem singlePanelCmd;  // checkbox menu item that switches between the two board views
 	private JPanel gameSetupToolbar;  // toolbar that is used when user is setting up a custom game.
 	
 	/**
 	 * Sets up a new default Sudoku board.
 	 */
 	public SudokuMain() {
+		puzzlePool.prefill(3, 3, QUICK_START_DIFFICULTY);  // start making Quick Start puzzles in the background
+		
 		if (MRU_FILE.exists()) {
 			loadMRU();  // load the MRU file, because it exists.
-			gameModel = mruModel.getLastGame();  // set the last open game to the active game
+			gameModel = recoverAutoSave();  // the autosave is never older than the last game in the MRU, and may have moves it missed
+			if (gameModel == null) gameModel = mruModel.getLastGame();  // set the last open game to the active game
 			
 			// Make sure there is a valid game
 			if (gameModel != null) {
-			
-				loadMruFiles();  // load the MRU files into their respective variables to be used by menu.
 		
 				// Create the GUI
 				game = new JFrame("Sudoku!");  // create window to play game in
@@ -118,7 +147,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 				
 				// setup the game
 				//setupDefaultBoard();  // fill up the board with defaults
-				gameView = new SudokuView(gameModel);  // create the View and link it with the Model
+				createBoardView();  // create the View and link it with the Model
 				game.add(gameView, BorderLayout.CENTER);  // add the View to the game.
 				
 				// Add the view that shows how much of the board has been completed
@@ -127,7 +156,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 				
 				// add observers
 				//gameModel.addObserver(gameView);  // add observer to view
-				gameModel.addObserver(completionView);  // add observer so completion status can update
 				gameModel.addObserver(this);  // add observer so game win can be displayed
 				
 				// create toolbar
@@ -167,7 +195,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		gameModel = new SudokuBoard(3, 3);
 		// setup the game
 		setupDefaultBoard();  // fill up the board with defaults
-		gameView = new SudokuView(gameModel);  // create the View and link it with the Model
+		createBoardView();  // create the View and link it with the Model
 		game.add(gameView, BorderLayout.CENTER);  // add the View to the game.
 		
 		// Add the view that shows how much of the board has been completed
@@ -176,7 +204,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		
 		// add observers
 		//gameModel.addObserver(gameView);  // add observer to view
-		gameModel.addObserver(completionView);  // add observer so completion status can update
 		gameModel.addObserver(this);  // add observer so game win can be displayed
 		
 		// create toolbar
@@ -192,20 +219,38 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		createMRU();  // create an MRU file, because it doesn't exist (at least not in the proper location).
 	}
 	
+	/*
+	 * Reads the autosaved game, or returns null if there is none or it cannot be read.
+	 */
+	private SudokuBoard recoverAutoSave() {
+		if (!AUTOSAVE_FILE.exists()) return null;
+		try {
+			return AutoSave.recover(AUTOSAVE_FILE);
+		} catch (IOException e) {
+			return null;  // fall back on the game in the MRU file
+		}
+	}
+	
 	/*
 	 * Loads the MRU / last used game model.
 	 */
 	private void loadMRU() {
 		try {
-			   FileInputStream fileIn = new FileInputStream(MRU_FILE);
-			   ObjectInputStream sudokuMRU = new ObjectInputStream(fileIn);
-			   mruModel = (SudokuMRU) sudokuMRU.readObject();
-			   sudokuMRU.close();
-			   fileIn.close();
+			mruModel = SudokuMRU.read(MRU_FILE, LAST_GAME_FILE, MRU_CAPACITY);  // only the index, the last game is read if it is needed
 		} catch (IOException e) {
-			// whoops
-		} catch (ClassNotFoundException e) {
-			// whoops
+			mruModel = new SudokuMRU(null);  // whoops, start again with no recent games
+			mruModel.setCapacity(MRU_CAPACITY);
+			try {
+				mruModel.setLastGame(SudokuBase.readBoard(LAST_GAME_FILE));  // the last game has its own file, so it may still be fine
+			} catch (IOException lastGameError) {
+				// no last game either, so a default game is started
+			}
+			return;
+		}
+		if (!LAST_GAME_FILE.exists() && mruModel.getLastGame() != null) {
+			// an MRU file from an older version, which held the last game itself, so split it up
+			writeLastGame();
+			writeMRU();
 		}
 	}
 	
@@ -214,45 +259,85 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	 */
 	private void createMRU() {
 		mruModel = new SudokuMRU(gameModel);
-		try {
-			MRU_FILE.createNewFile();
-		} catch (IOException e) {
-			System.out.println("File creation failure");
+		mruModel.setCapacity(MRU_CAPACITY);
+		writeLastGame();
+		writeMRU();  // write the file
+	}
+	
+	/*
+	 * Shows the page of recent games starting at recentFirst in the recent games menu.  Only the items of the sub menu change, the rest of the menu is kept.
+	 */
+	private void refreshRecentMenu() {
+		if (recentMenu == null) return;  // no menu yet
+		java.util.List<SudokuMRU.Entry> page = java.util.Collections.emptyList();
+		if (mruModel != null) {
+			if (recentFirst >= mruModel.getNumberOfSaves()) {
+				recentFirst = Math.max(0, (mruModel.getNumberOfSaves() - 1) / RECENT_PAGE_SIZE * RECENT_PAGE_SIZE);  // the page shown got shorter, so show the last page
+			}
+			page = mruModel.getEntries(recentFirst, RECENT_PAGE_SIZE + 1);  // one more than fits, to tell if there is a next page
 		}
 		
-		writeMRU();  // write the file
+		// reuse the same items for every page
+		for (int i = 0; i < RECENT_PAGE_SIZE; i++) {
+			if (i < page.size()) {
+				SudokuMRU.Entry entry = page.get(i);
+				recentGameFiles[i] = entry.getFile();
+				recentGameCmds[i].setText((i + 1) + "  " + entry.getFile());  // number matches the shortcut key
+				recentGameCmds[i].setToolTipText(describeMruFile(entry));  // size and progress of the saved game
+				recentGameCmds[i].setVisible(true);
+			} else {
+				recentGameFiles[i] = null;
+				recentGameCmds[i].setVisible(false);  // nothing to show here on this page
+			}
+		}
+		recentPreviousCmd.setVisible(recentFirst > 0);
+		recentMoreCmd.setVisible(page.size() > RECENT_PAGE_SIZE);
+		recentPagingSeparator.setVisible(recentFirst > 0 || page.size() > RECENT_PAGE_SIZE);
+		recentMenu.setEnabled(!page.isEmpty());  // grayed out until a game has been saved
 	}
 	
 	/*
-	 * Loads file array into main so that recent saves can show up in menu
+	 * Loads a game from the recent games menu, or removes it from the list if the file is gone.
 	 */
-	private void loadMruFiles() {
-		// load MRU Files
-		mruFileList = mruModel.getMruFiles();  // load up the file array
-		
-		// Load individual files up into respective fields
-		mruFileOne = mruFileList[0];
-		mruFileTwo = mruFileList[1];
-		mruFileThree = mruFileList[2];
-		mruFileFour = mruFileList[3];
+	private void loadRecentGame(File recentFile) {
+		// check if the file exists, if it doesn't, remove from MRU list
+		if (recentFile.exists()) {
+			loadGame(recentFile);  // load the game
+		} else {
+			mruModel.removeFileFromSaveList(recentFile);  // game doesn't exist, so remove it from the mru file
+			writeMRU();  // update the mru save file.
+			refreshRecentMenu();  // remove option from the recent games menu
+			gameDoesNotExist(); // let user know the game no longer exists
+		}
 	}
 	
+	/*
+	 * Describes a recent save file for its menu tool tip, from what the MRU index knows about it.  Returns null if nothing is known.
+	 */
+	private String describeMruFile(SudokuMRU.Entry entry) {
+		if (entry.getSavedTime() == 0) return null;  // listed by an older version, so nothing is known
+		return entry.getRows() + " x " + entry.getColumns() + ", " + entry.getPercentFilled() + "% filled, saved "
+				+ java.text.DateFormat.getDateTimeInstance().format(new java.util.Date(entry.getSavedTime()));
+	}
 	
 	/*
-	 * Writes the existing mruModel to file.
+	 * Writes the changes to the mruModel to file, in the background.  Only the changes are added to the end of the file, unless it has to be written whole.
 	 */
 	private void writeMRU() {
-		   try {
-			   FileOutputStream fileOut = new FileOutputStream(MRU_FILE);
-			   ObjectOutputStream out = new ObjectOutputStream(fileOut);
-			   
-			   out.writeObject(mruModel);
-			   out.close();
-			   fileOut.close();
-			   
-		   } catch (IOException e) {
-			 // Functionality is hidden from user. this kind of error will also be hidden.
-		   }
+		// Functionality is hidden from user. this kind of error will also be hidden.
+		if (mruModel.needsWholeIndex() || !MRU_FILE.exists()) {
+			storage.write(mruModel.encodeIndex(), MRU_FILE);
+		} else {
+			java.nio.ByteBuffer changes = mruModel.takeIndexChanges();
+			if (changes != null) storage.append(changes, MRU_FILE);
+		}
+	}
+	
+	/*
+	 * Writes the last game in the MRU to its own file, in the background.
+	 */
+	private void writeLastGame() {
+		storage.saveGame(mruModel.getLastGame(), LAST_GAME_FILE);  // errors are hidden, as for the MRU file
 	}
 	
 	/**
@@ -269,7 +354,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	@Override
 	public void keyPressed(KeyEvent e) {
 	    int keyPressed = e.getKeyCode();  // set the value of the key that was pressed to an integer
-	    int selectedRow = gameView.getSelectedRow(), selectedCol = gameView.getSelectedColumn();
+	    int selectedRow = selectedCell.getSelectedRow(), selectedCol = selectedCell.getSelectedColumn();
 	    // switch on the given key
 	    switch( keyPressed ) { 
 	    	// if the up key was pressed
@@ -278,7 +363,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	        	if (selectedRow > 0) {
 	        		// it is in range, so move into place
 	        		int newRow = selectedRow - 1;  // set the new row to be one above the old value
-	        		gameView.setSelected(newRow, selectedCol);  // set the selected row to the new value
+	        		selectedCell.setSelected(newRow, selectedCol);  // set the selected row to the new value
 	        	} else {
 	        		// Out of range, play annoying beep.
 	        		Toolkit.getDefaultToolkit().beep();
@@ -289,7 +374,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	        	// check to make sure the desired new row position is within range
 	        	if (selectedRow < gameModel.size - 1) {
 	        		int newRow = selectedRow + 1;  // set the new row to be one below the old value
-	        		gameView.setSelected(newRow, selectedCol);  // set the selected row to the new value
+	        		selectedCell.setSelected(newRow, selectedCol);  // set the selected row to the new value
 	        	} else {
 	        		// Out of range, play annoying beep.
 	        		Toolkit.getDefaultToolkit().beep();
@@ -300,7 +385,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	        	// check to make sure the desired new row position is within range
 	        	if (selectedCol > 0) {
 	        		int newCol = selectedCol - 1;  // set the new column to be one left of the old value
-	        		gameView.setSelected(selectedRow, newCol);  // set the selected column to the new value
+	        		selectedCell.setSelected(selectedRow, newCol);  // set the selected column to the new value
 	        	} else {
 	        		// Out of range, play annoying beep.
 	        		Toolkit.getDefaultToolkit().beep();
@@ -311,7 +396,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	        	// check to make sure the desired new row position is within range
 	        	if (selectedCol < gameModel.size - 1) {
 	        		int newCol = selectedCol + 1;  // set the new column to be one right of the old value
-	        		gameView.setSelected(selectedRow, newCol);  // set the selected column to the new value
+	        		selectedCell.setSelected(selectedRow, newCol);  // set the selected column to the new value
 	        	} else {
 	        		// Out of range, play annoying beep.
 	        		Toolkit.getDefaultToolkit().beep();
@@ -459,6 +544,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	 * Adds values to the default board modeled after a Sudoku board found on http://www.websudoku.com
 	 */
 	private void setupDefaultBoard() {
+		gameModel.beginUpdate();  // redraw once, after the whole board is set up
 		// set the values
 		gameModel.setValue(0, 2, 3);
 		gameModel.setValue(0, 8, 9);
@@ -496,6 +582,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		
 		// fix values as givens so user can't edit them
 		gameModel.fixGivens();	
+		gameModel.endUpdate();
 	}
 
 	/*
@@ -555,37 +642,26 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		        KeyEvent.VK_Q, ActionEvent.SHIFT_MASK));
 		fileMenu.add(quitGameCmd);  // add the quit option to the menu
 		
-		// Add MRU list only if there are any items to add
-		if (mruFileOne != null) {
-			
-			fileMenu.add(new JSeparator()); // Add a spacer between the main file functions and MRU if there are any MRU files to show
-			
-			// Most recent file
-			loadMruOneCmd = new JMenuItem(mruFileOne.toString(), KeyEvent.VK_1);  // shortcut to load recent game 1 is 1
-			loadMruOneCmd.addActionListener(this);  // allow user to click on this
-			fileMenu.add(loadMruOneCmd);  // only add if there is an actual file.
-			
-			// Next most recent
-			if (mruFileTwo != null) {
-			loadMruTwoCmd = new JMenuItem(mruFileTwo.toString(), KeyEvent.VK_2);  // shortcut to load recent game 2 is 2
-			loadMruTwoCmd.addActionListener(this);  // allow user to click on this
-			fileMenu.add(loadMruTwoCmd);  // only add if there is an actual file.
-			}
-			
-			// Third most recent
-			if (mruFileThree != null) {
-			loadMruThreeCmd = new JMenuItem(mruFileThree.toString(), KeyEvent.VK_3);  // shortcut to load recent game 3 is 3
-			loadMruThreeCmd.addActionListener(this);  // allow user to click on this
-			fileMenu.add(loadMruThreeCmd);  // only add if there is an actual file.
-			}
-			
-			// Fourth most recent (last on list)
-			if (mruFileFour != null) {
-			loadMruFourCmd = new JMenuItem(mruFileFour.toString(), KeyEvent.VK_4);  // shortcut to load recent game 4 is 4
-			loadMruFourCmd.addActionListener(this);  // allow user to click on this
-			fileMenu.add(loadMruFourCmd);  // only add if there is an actual file.
-			}
+		// Add the recent games, a page at a time
+		fileMenu.add(new JSeparator()); // Add a spacer between the main file functions and MRU
+		recentMenu = new JMenu("Recent Games");
+		recentMenu.setMnemonic(KeyEvent.VK_R);  // set keyboard shortcut
+		recentMenu.setBackground(darkBackground);
+		fileMenu.add(recentMenu);
+		for (int i = 0; i < RECENT_PAGE_SIZE; i++) {
+			recentGameCmds[i] = new JMenuItem("", KeyEvent.VK_1 + i);  // shortcut to load recent game 1 is 1, and so on
+			recentGameCmds[i].addActionListener(this);  // allow user to click on this
+			recentMenu.add(recentGameCmds[i]);  // text is filled in by refreshRecentMenu()
 		}
+		recentPagingSeparator = new JSeparator();
+		recentMenu.add(recentPagingSeparator);
+		recentPreviousCmd = new JMenuItem("Previous", KeyEvent.VK_P);  // show the more recent page
+		recentPreviousCmd.addActionListener(this);
+		recentMenu.add(recentPreviousCmd);
+		recentMoreCmd = new JMenuItem("More", KeyEvent.VK_M);  // show the older page
+		recentMoreCmd.addActionListener(this);
+		recentMenu.add(recentMoreCmd);
+		refreshRecentMenu();  // show the current page
 		
 		// Setup Options Menu
 		optionsMenu = new JMenu("Options");  // create the game menu
@@ -604,11 +680,18 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		showNumeric.setAccelerator(KeyStroke.getKeyStroke(
 		        KeyEvent.VK_D, ActionEvent.SHIFT_MASK));  
 		// finish implementation
-		displayNumbers = gameView;  // connects with view
+		displayNumbers = (NumericSupport)gameView;  // connects with view
 		showNumeric.setSelected(displayNumbers.showsNumeric());  // sets selected value to being controlled by view
 		showNumeric.addItemListener(this);  // add item listener to this check-box.
 		optionsMenu.add(showNumeric);  // add menu item to options menu
 		
+		// Allow user to switch to the board drawn as a single panel (faster on large boards)
+		singlePanelCmd = new JCheckBoxMenuItem("Single Panel Board");
+		singlePanelCmd.setMnemonic(KeyEvent.VK_S);
+		singlePanelCmd.setSelected(singlePanelBoard);
+		singlePanelCmd.addItemListener(this);  // add item listener to this check-box.
+		optionsMenu.add(singlePanelCmd);  // add menu item to options menu
+		
 		// Allow user to clear everything from the board except givens
 		resetGameCmd = new JMenuItem("Reset Game", KeyEvent.VK_R);  // create the menu item.
 		resetGameCmd.setAccelerator(KeyStroke.getKeyStroke(
@@ -617,6 +700,18 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		optionsMenu.add(new JSeparator());  // create a separator between Display Numbers and Reset Game
 		optionsMenu.add(resetGameCmd);  // add to the option menu
 		
+		// Allow user to take back moves and make them again
+		undoGameCmd = new JMenuItem("Undo", KeyEvent.VK_U);  // create the menu item.
+		undoGameCmd.setAccelerator(KeyStroke.getKeyStroke(
+		        KeyEvent.VK_Z, ActionEvent.CTRL_MASK));   // allow shortcut access
+		undoGameCmd.addActionListener(this); // takes back the last move when clicked on
+		optionsMenu.add(undoGameCmd);  // add to the option menu
+		redoGameCmd = new JMenuItem("Redo", KeyEvent.VK_E);  // create the menu item.
+		redoGameCmd.setAccelerator(KeyStroke.getKeyStroke(
+		        KeyEvent.VK_Y, ActionEvent.CTRL_MASK));   // allow shortcut access
+		redoGameCmd.addActionListener(this); // makes the last undone move again when clicked on
+		optionsMenu.add(redoGameCmd);  // add to the option menu
+		
 		// Setup About Menu
 		aboutMenu = new JMenu("About");
 		aboutMenu.setBackground(darkBackground); // set menu background color
@@ -709,58 +804,21 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		}
 		
 		// Loads for MRU list
-		
-		// Load first game in list
-		if (source == loadMruOneCmd) {
-			// check if the file exists, if it doesn't, remove from MRU list
-			if(mruFileOne.exists()) {
-				loadGame(mruFileOne);  // load the game
-			} else {
-				mruModel.removeFileFromSaveList(mruFileOne);  // game doesn't exist, so remove it from the mru file
-				writeMRU();  // update the mru save file.
-				fileMenu.remove(loadMruOneCmd);  // remove option from file menu
-				gameDoesNotExist(); // let user know the game no longer exists
+		for (int i = 0; i < RECENT_PAGE_SIZE; i++) {
+			if (source == recentGameCmds[i] && recentGameFiles[i] != null) {
+				loadRecentGame(recentGameFiles[i]);
 			}
 		}
 		
-		// Load second game in list
-			if (source == loadMruTwoCmd) {
-				// check if the file exists, if it doesn't, remove from MRU list
-				if(mruFileTwo.exists()) {
-					loadGame(mruFileTwo);  // load the game
-				} else {
-					mruModel.removeFileFromSaveList(mruFileTwo);  // game doesn't exist, so remove it from the mru file
-					writeMRU();  // update the mru save file.
-					fileMenu.remove(loadMruTwoCmd);  // remove option from file menu
-					gameDoesNotExist(); // let user know the game no longer exists
-				}
-			}
-			
-			// Load third game in list
-			if (source == loadMruThreeCmd) {
-				// check if the file exists, if it doesn't, remove from MRU list
-				if(mruFileThree.exists()) {
-					loadGame(mruFileThree);  // load the game
-				} else {
-					mruModel.removeFileFromSaveList(mruFileThree);  // game doesn't exist, so remove it from the mru file
-					writeMRU();  // update the mru save file.
-					fileMenu.remove(loadMruThreeCmd);  // remove option from file menu
-					gameDoesNotExist(); // let user know the game no longer exists
-				}
-			}
-			
-			// Load fourth (last) game in list
-			if (source == loadMruFourCmd) {
-				// check if the file exists, if it doesn't, remove from MRU list
-				if(mruFileFour.exists()) {
-					loadGame(mruFileFour);  // load the game
-				} else {
-					mruModel.removeFileFromSaveList(mruFileFour);  // game doesn't exist, so remove it from the mru file
-					writeMRU();  // update the mru save file.
-					fileMenu.remove(loadMruFourCmd);  // remove option from file menu
-					gameDoesNotExist(); // let user know the game no longer exists
-				}
-			}
+		// Page through the recent games
+		if (source == recentPreviousCmd) {
+			recentFirst = Math.max(0, recentFirst - RECENT_PAGE_SIZE);
+			refreshRecentMenu();
+		}
+		if (source == recentMoreCmd) {
+			recentFirst += RECENT_PAGE_SIZE;
+			refreshRecentMenu();
+		}
 		
 		// If user wants to reset the game
 		if (source == resetGameCmd) {
@@ -779,6 +837,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 			
 			// As long as the user hits okay, reset the board.
 			if (n == JOptionPane.OK_OPTION) {
+				gameModel.beginUpdate();  // clear the whole board with a single redraw
 				for ( int row = 0; row < gameModel.size; row++ ) {
 					for (int col = 0; col < gameModel.size; col ++ ) {
 						if (gameModel.isGiven(row, col) == false) {
@@ -786,17 +845,29 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 						}
 					}
 				}
+				gameModel.endUpdate();
 			} else {
 				// User canceled, so do nothing.
 			}
 		}
 		
+		// If user wants to take back a move (a Reset Game is taken back all at once)
+		if (source == undoGameCmd) {
+			gameModel.undo();  // does nothing if there is nothing to take back
+		}
+		
+		// If user wants to make a move they took back again
+		if (source == redoGameCmd) {
+			gameModel.redo();  // does nothing if there is nothing to make again
+		}
+		
 		// If user wants to get help
 		if (source == helpGameCmd) {
 			String helpMessage = "Sudoku is a game that requires you to fill up a board with non-repeating values.\n"
 					+ "Each row, column, and region should contain unique, non-repeating values. \n\n"
 					+ "For keyboard entry 0 will clear a cell, 1-9 represent values 1-9, and I represents 10,\n"
 					+ "O represents 11, and P represtents 12.\n\n"
+					+ "Ctrl+Z takes back a move and Ctrl+Y makes it again.\n\n"
 					+ "Have fun!";
 			JOptionPane.showMessageDialog(game, helpMessage, 
 					"Sudoku Help", 
@@ -821,7 +892,10 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	private void quitGame() {
 		// update the MRU before quitting so current game will load next time
 		mruModel.setLastGame(gameModel);  // update the MRU with current game
+		writeLastGame();  // write the game to disk.
 		writeMRU();  // write the file to disk.
+		storage.shutdown();  // wait for the MRU and any other saves to reach the disk
+		autoSave.close(QUIT_WAIT_MILLIS);  // write the last few moves
 		
 		// Now actually quit.
 		game.dispose();  // quit the game
@@ -837,7 +911,11 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	private void saveGame() {
 		// If user has previously saved, or loaded a game.
 		if (saveFile != null && gameSetupToolbar == null) {
-			gameModel.writeToStream(gameModel, saveFile);  // save the game
+			saveTo(saveFile);  // save the game
+			mruModel.addFileToSaveList(saveFile, gameModel);  // keep the MRU list's size and progress for the file current
+			writeMRU();  // update MRU file with saved game info
+			recentFirst = 0;  // show the file at the top of the list
+			refreshRecentMenu();
 			// no save game exits, so create a new one
 		} else if (gameSetupToolbar != null) {
 			displaySetupModeSaveError();  // show error message
@@ -869,24 +947,34 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 				saveFile = savePicker.getSelectedFile();  // get the filename the user typed
 				String fileName = saveFile.getAbsolutePath();
 				if (fileName.endsWith(".sdk")) {
-					gameModel.writeToStream(gameModel, saveFile);  // save the game
+					saveTo(saveFile);  // save the game
 				} else {
 					saveFile = new File(fileName + ".sdk");
-					gameModel.writeToStream(gameModel, saveFile);  // save the game
+					saveTo(saveFile);  // save the game
 				}
 				
-				mruModel.addFileToSaveList(saveFile);  // update the MRU list object
+				mruModel.addFileToSaveList(saveFile, gameModel);  // update the MRU list object, with the board's size and progress
 				writeMRU();  // update MRU file with saved game info
-				game.remove(gameMenu);  // remove the old menu
-				loadMruFiles();  // reload the MruFiles
-				createMenuUI();  // re-create the menu with newly saved file added to the list.
-				game.pack();    // refresh display.
+				recentFirst = 0;  // show the newly saved file at the top of the list
+				refreshRecentMenu();
 			} 
 		} else {
 			displaySetupModeSaveError();  // show error message
 		}
 	}
 	
+	/*
+	 * Saves the current game to a file in the background, and tells the user if it could not be saved.
+	 */
+	private void saveTo(File file) {
+		storage.saveGame(gameModel, file).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				if (error != null) SudokuBase.showSaveError();  // called on the event thread
+			}
+		});
+	}
+	
 	/*
 	 * Displays setup mode save error
 	 */
@@ -900,26 +988,29 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	/*
 	 * Loads a game using given filename.
 	 */
-	private void loadGame(File loadFile) {
-		SudokuBoard temp = gameModel.readFromStream(loadFile);  // set to a temp placeholder to make sure we got a non null game
-		
+	private void loadGame(final File loadFile) {
 		if (mruModel.doesFileExist(loadFile)) {
-			mruModel.removeFileFromSaveList(loadFile); // remove from current position in list
-			mruModel.addFileToSaveList(loadFile);  // add it back to the top
+			mruModel.addFileToSaveList(loadFile);  // move it to the top of the list
 			writeMRU();  // update MRU file with saved game info
-			game.remove(gameMenu);  // remove the old menu
-			loadMruFiles();  // reload the MruFiles
-			createMenuUI();  // re-create the menu with newly saved file added to the list.
+			recentFirst = 0;  // show it at the top of the list
+			refreshRecentMenu();
 		}
 		
-		// As long as it isn't null, load the game
-		if (temp != null) {
-			saveFile = loadFile;  // If user does not use save-as, make sure they are saving over the newly loaded file.
-			// Use method for reverting to old game to load the new game
-			oldModel = temp;  // set the oldModel field value to the temp value we just read in to allow for revert to work.
-			revertToOldGame();  // using revertToOldGame() will cause the newly loaded game to appear as the current game.
-			
-		}
+		// read the file in the background; the game is swapped in on the event thread once it has been read
+		storage.loadGame(loadFile).whenComplete(new BiConsumer<SudokuBoard, Throwable>() {
+			@Override
+			public void accept(SudokuBoard temp, Throwable error) {
+				// As long as it loaded, load the game
+				if (error != null) {
+					SudokuBase.showLoadError();
+				} else {
+					saveFile = loadFile;  // If user does not use save-as, make sure they are saving over the newly loaded file.
+					// Use method for reverting to old game to load the new game
+					oldModel = temp;  // set the oldModel field value to the temp value we just read in to allow for revert to work.
+					revertToOldGame();  // using revertToOldGame() will cause the newly loaded game to appear as the current game.
+				}
+			}
+		});
 	}
 
 	/**
@@ -931,9 +1022,46 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		// For showNumeric (check-box that controls whether or not numbers are displayed or symbols are displayed.
 		if (source == showNumeric) {
 			displayNumbers.setNumeric(showNumeric.isSelected());  // update the view
+			toolbar.repaint();  // the tool-bar shows numbers or symbols too
+		} else if (source == singlePanelCmd) {
+			switchBoardView(singlePanelCmd.isSelected());
 		}
 	}
 	
+	/*
+	 * Creates the view for the game model: a SudokuCanvas if the single panel board is chosen, otherwise a SudokuView.
+	 */
+	private void createBoardView() {
+		autoSave.attach(gameModel);  // every new view is for a new game, or the game being autosaved already
+		if (singlePanelBoard) {
+			SudokuCanvas canvas = new SudokuCanvas(gameModel);
+			gameView = canvas;
+			selectedCell = canvas;
+		} else {
+			SudokuView view = new SudokuView(gameModel);
+			gameView = view;
+			selectedCell = view;
+		}
+	}
+	
+	/*
+	 * Swaps the board view for the other kind, keeping the selected cell and the numbers / symbols choice.
+	 */
+	private void switchBoardView(boolean singlePanel) {
+		if (singlePanel == singlePanelBoard) return;
+		singlePanelBoard = singlePanel;
+		int row = selectedCell.getSelectedRow(), col = selectedCell.getSelectedColumn();
+		boolean numeric = displayNumbers.showsNumeric();
+		game.remove(gameView);  // remove the old board
+		createBoardView();
+		selectedCell.setSelected(row, col);
+		displayNumbers = (NumericSupport)gameView;  // connects with view
+		displayNumbers.setNumeric(numeric);
+		game.add(gameView, BorderLayout.CENTER);  // add the view to the center of the game
+		game.validate();  // re-validate the screen
+		game.repaint();
+	}
+	
 	/*
 	 * Creates a new game that allows user to customize the board or revert back to the old game.
 	 */
@@ -944,7 +1072,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		game.remove(gameView);  // remove the old board
 		game.remove(completionView); 
 		gameModel = new SudokuBoard(rows, columns);  // setup a new 3 x 3 model
-		gameView  = new SudokuView(gameModel);  // create a view for the model
+		createBoardView();  // create a view for the model
 		game.add(gameView, BorderLayout.CENTER);  // add the view to the center of the game
 		game.remove(toolbar);  // remove the old tool-bar
 		createToolbarUI(rows * columns + 1);   // create a new one with 10 buttons
@@ -957,7 +1085,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		completionView = new CompletionView(gameModel);  // create a view to display row, column, and region status of gameModel
 		
 		// add observers
-		gameModel.addObserver(completionView);  // add observer so completion status can update
 		gameModel.addObserver(this);  // add observer so game win can be displayed
 		game.pack();  // set to preferred sizes
 		newGame.dispose();  //  close the setup window
@@ -971,7 +1098,7 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		game.remove(completionView);
 		gameModel = oldModel;   // go back to old model.
 		oldModel = null;  // get rid of the stuff that used to be in oldModel because we no longer need it.
-		gameView  = new SudokuView(gameModel);  // create a view for the model
+		createBoardView();  // create a view for the model
 		game.add(gameView, BorderLayout.CENTER);  // add the view to the center of the game
 		game.remove(toolbar);  // remove the old tool-bar
 		createToolbarUI(gameModel.rows * gameModel.columns + 1);   // create a new one with 10 buttons
@@ -982,7 +1109,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		game.add(completionView, BorderLayout.SOUTH);
 		
 		// add observers
-		gameModel.addObserver(completionView);  // add observer so completion status can update
 		gameModel.addObserver(this);  // add observer so game win can be displayed
 		game.validate();  // re-validate the screen
 		game.pack();  // set to preferred sizes
@@ -1102,9 +1228,8 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 			public void actionPerformed(ActionEvent e) {
 				if ( defaultGame.isSelected() ) {
 					game.remove(gameView);  // remove the old board
-					gameModel = new SudokuBoard(3, 3);  // setup a new 3 x 3 model
-					gameView  = new SudokuView(gameModel);  // create a vew for the model
-					setupDefaultBoard();
+					gameModel = puzzlePool.take(3, 3, QUICK_START_DIFFICULTY);  // get a new 3 x 3 puzzle, ready made if possible
+					createBoardView();  // create a vew for the model
 					game.remove(toolbar);  // remove the old toolbard
 					if (gameSetupToolbar != null) game.remove(gameSetupToolbar); // remove the setup toolbar if user was setting up a new game when they selected quick setup.
 					// if (completionView != null) game.remove(completionView); // if an old view exists, get rid of it.
@@ -1115,7 +1240,6 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 					game.add(toolbar, BorderLayout.NORTH);    // add the toolbar to the north
 					createMenuUI();  // re-create the menu (to display numbers properly)
 					// add observers
-					gameModel.addObserver(completionView);  // add observer so completion status can update
 					game.validate();  // re-validate the screen
 					game.pack();  // set to preferred sizes
 					newGame.dispose();  //  close the setup window
@@ -1173,13 +1297,10 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 	public void update(Observable sudoKuBoard, Object arg) {
 		if ( gameWon != true ) {
 		
-			for (int i = 0; i < gameModel.size; i++) {
-				if (gameModel.getRegionState(i) != SudokuBoard.State.COMPLETE ) {
-					break;  // leave false if game has not been won
-					} else if ( i == gameModel.size - 1 && gameModel.getRegionState(i) == SudokuBoard.State.COMPLETE) {
-					gameWon = true; // set game win to true
-					}
-				}
+			// won once every cell is filled and no row, column, or region has a duplicate (the board keeps count, so this is quick)
+			if (gameModel.isSolved()) {
+				gameWon = true; // set game win to true
+			}
 			
 			// gameModel.deleteObserver(this);  // delete the observer
 			if (gameWon == true ) winGame();  // if the game has been won, show win dialouge box.
@@ -1230,39 +1351,29 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 		public ToolbarItem(int value) {
 			this.value = value;  // sets the value
 			setPreferredSize(BUTTON_SIZE);  // set the preferred size to constant dimension
-			
-		}
-
-		/**
-		 * Paints the contents of the "buttons"
-		 */
-		public void paintComponent(Graphics g) {
-			super.paintComponent(g);  // clear anything that used to be here.
-			Border buttonBorder = BorderFactory.createCompoundBorder(
-					BorderFactory.createRaisedBevelBorder(), BorderFactory.createLoweredBevelBorder());  // create a compound border to create a cool effect
-			setBorder(buttonBorder);  // set the border to frame buttons
+			setBorder(BUTTON_BORDER);  // set the border to frame buttons
 			setBackground(backGroundColor);  // set default background color
 			// setup mouse actions
 			addMouseListener( new MouseAdapter() {
 				// When the mouse hovers over area
 				public void mouseEntered(MouseEvent e) {
-					backGroundColor = selectedBackground;  // set to the selected background color
+					showBackground(selectedBackground);  // set to the selected background color
 				}
 				// When the mouse leaves the area
 				public void mouseExited(MouseEvent e) {
-					backGroundColor = darkBackground;  // set back to the default (dark) background
+					showBackground(darkBackground);  // set back to the default (dark) background
 				}
 				// when mouse is pressed change to the active background color
 				public void mousePressed(MouseEvent e) {
-					backGroundColor = activeBackground;
+					showBackground(activeBackground);
 				}
 				// when mouse click is released change back to normal color
 				public void mouseReleased(MouseEvent e) {
-					backGroundColor = darkBackground;
+					showBackground(darkBackground);
 				}
 				// When the mouse has been clicked
 				public void mouseClicked(MouseEvent e) {
-					int row = gameView.getSelectedRow(), col = gameView.getSelectedColumn();  // figure out what cell the view is on
+					int row = selectedCell.getSelectedRow(), col = selectedCell.getSelectedColumn();  // figure out what cell the view is on
 					// make sure that the currently selected cell isn't a given
 					if (!gameModel.isGiven(row, col)) {
 						gameModel.setValue(row, col, value);  // set the value into the model
@@ -1272,104 +1383,26 @@ public class SudokuMain extends JComponent implements ItemListener, ActionListen
 					}
 				}
 			});
+		}
+		
+		/*
+		 * Changes the background color for mouse-overs and clicks (setBackground repaints the button).
+		 */
+		private void showBackground(Color color) {
+			backGroundColor = color;
+			setBackground(color);
+		}
+
+		/**
+		 * Paints the contents of the "buttons"
+		 */
+		public void paintComponent(Graphics g) {
+			super.paintComponent(g);  // clear anything that used to be here.
+			setBackground(backGroundColor);  // go back to the normal color after a key press flashed the button (no repaint unless the color changes)
 			
-			// Create numerical representations if option is enabled
-			if (displayNumbers.showsNumeric()) {
-				if (value != 0) {
-					g.setFont(numeric);  // set the font
-					g.setColor(artColor);  // set the color
-					g.drawString(String.valueOf(value), this.getWidth() / 2 - this.getWidth() / 10, this.getHeight() / 2 + this.getHeight() / 8);  // draw the value as a number
-				}
-			}
-			
-			// If the numerical representation option is not enabled, draw graphical representations (Mayan numbers)
-			else {
-				Graphics2D g2D = (Graphics2D)g.create();  // create Graphics2D object to draw with
-				g2D.setColor(artColor);  // color for all values
-				g2D.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_BEVEL));  // set stroke
-				switch (value) {
-				// Blank space
-				case 0:
-					break;  // don't draw anything that has a value of 0.
-				// Mayan one symbol
-				case 1:
-					/* Everything below here draws the individual Mayan symbols to represent the numbers */
-					
-					/*
-					 * Draws the Mayan symbol that represents one
-					 */
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 12, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
-					break;
-				// Mayan two symbol
-				case 2:
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					break;
-				// Mayan three symbol
-				case 3:
-					g2D.fillOval(this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2 - getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 6, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-					break;
-				// Mayan four symbol
-				case 4:
-					g2D.fillOval(this.getWidth() / 8, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-					g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the fourth dot
-					break;
-				// Mayan five symbol
-				case 5:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					break;
-				// Mayan six symbol
-				case 6:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() /2); // draw the line
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
-					break;
-				// Mayan seven symbol
-				case 7:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() /2);  // draw the line
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					break;
-				// Mayan eight symbol
-				case 8:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					g2D.fillOval(this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2 - getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 6, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-					break;
-				// Mayan nine symbol
-				case 9:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					g2D.fillOval(this.getWidth() / 8, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-					g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the fourth dot
-					break;
-				// Mayan ten symbol
-				case 10:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-					break;
-				// Mayan eleven symbol
-				case 11:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
-					break;
-				// Mayan twelve symbol
-				case 12:
-					g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-					g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-					g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-					g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-					break;
-				// no more cases, if a number is above 12, it is outside the scope of existing characters that are available inside this class.
-				}
-					
-			}
+			// Draw the value as a number or a Mayan symbol, whichever option is enabled
+			toolbarGlyphs.setNumeric(displayNumbers.showsNumeric());
+			toolbarGlyphs.draw(g, value, false, getWidth(), getHeight());
 			
 		}
 		
@@ -0,0 +1,26 @@
+package pratt.dan.sudoku;
+/**
+ * Support for solving the puzzle held inside a SudokuBase object.  Used for hints, checking a board, and creating new puzzles.
+ * Solvers never change the board they are given; solutions are written into an array supplied by the caller.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+public interface SudokuSolver {
+
+   /**
+    * Finds a solution for the given board.
+    * @param board The board to solve.  Its values are used as the starting point and are not changed.
+    * @param solution Array (at least board.size * board.size long) that the solution is written into, one value per cell, row by row.
+    * @return true if a solution was found, false if the board cannot be solved.
+    */
+   public boolean solve(SudokuBase board, int[] solution);
+
+   /**
+    * Counts the solutions of the given board, stopping once the limit is reached.  Use a limit of 2 to check that a puzzle has exactly one solution.
+    * @param board The board to check.  Its values are used as the starting point and are not changed.
+    * @param limit The most solutions to look for (must be at least 1).
+    * @return The number of solutions found, from 0 up to and including limit.
+    */
+   public int countSolutions(SudokuBase board, int limit);
+
+}
@@ -1,8 +1,4 @@
 package pratt.dan.sudoku;
-// Observer imports
-import java.util.Observable;  // required to setup observable implementation
-import java.util.Observer;  // for implementation
-
 // awt imports
 import java.awt.*; // import for fonts, color, etc.
 import java.awt.event.*; // import for handling events (i.e. mouse and keyboard)
@@ -20,8 +16,7 @@ import javax.swing.JPanel; // import for JPanel.
  * @version Assignment 4: Sudoku Graphics
  *
  */
-public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
-		Observer {
+public class SudokuView extends JPanel implements NumericSupport, SelectedCell, CellListener {
 	/* Constants */
 	
 	// Class constant for preferred sizes
@@ -32,12 +27,10 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 	private static final Color lightBackground = new Color(0, 151, 172);  // darker color for board fill
 	private static final Color darkBackground = new Color(0, 121, 150);  // lighter color for board fill
 	private static final Color selectedBackground = new Color(34, 85, 51);  // fill color when cell is selected
-	private static final Color givenColor = new Color(95, 216, 250);  // Color values of givens take on  
-	private static final Color artColor = new Color(177, 221, 161); // Color of regular values
 	
-	// Font used in numeric version
-	private static final Font numeric 	 = new Font("Serif", Font.PLAIN, 18);  // regular inputs
-	private static final Font numericBold = new Font("Serif", Font.BOLD, 18);  // bold given values
+	// Shared border, created once instead of on every paint
+	private static final Border CELL_BORDER = BorderFactory.createCompoundBorder(
+			BorderFactory.createRaisedBevelBorder(), BorderFactory.createLoweredBevelBorder());  // bevel borders hold no state, so every cell can share one
 	
 	/* Fields */
 	
@@ -46,6 +39,8 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 	
 	// Class board field
 	private SudokuBoard sudokuBoard;  // Model that this view class represents
+	private final Cell[] cells;  // every Cell, row by row, so a change to the model only repaints the cell it touched
+	private final GlyphCache glyphs = new GlyphCache();  // numbers and symbols drawn once at the current cell size
 	
 	// Flag variables
 	private boolean isNumeric;  // is true if isNumeric box is checked, will cause numeric values to be displayed.
@@ -61,31 +56,57 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 		setLayout(new GridLayout(board.size, board.size));  // set to a grid layout that matches the board dimensions.
 		
 		// create the board
+		cells = new Cell[sudokuBoard.size * sudokuBoard.size];
 		for (int row = 0; row < sudokuBoard.size; row++) {
 			for (int col = 0; col < sudokuBoard.size; col++) {
-				add(new Cell(row, col));  // add Cell object (object that graphically represents individual values contained in given row, column).
+				Cell cell = new Cell(row, col);  // Cell object (object that graphically represents individual values contained in given row, column).
+				cells[row * sudokuBoard.size + col] = cell;
+				add(cell);
 			}
 		}
 		
 	}
-
-
+	
+	/**
+	 * Starts listening to the model for cell changes once the view is shown.
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		sudokuBoard.addCellListener(this);  // repaint cells as they change
+	}
+	
+	/**
+	 * Stops listening to the model once the view is taken off the screen, so a replaced view is not kept around by its model.
+	 */
+	@Override
+	public void removeNotify() {
+		sudokuBoard.removeCellListener(this);
+		super.removeNotify();
+	}
+	
 	/* (non-Javadoc)
-	 * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
+	 * @see CellListener#cellChanged(SudokuBase, int, int, int, int, boolean)
 	 */
 	@Override
-	public void update(Observable sudokuBoard, Object arg) {
-		repaint();  // repaint when model changes
+	public void cellChanged(SudokuBase board, int row, int col, int oldValue, int newValue, boolean given) {
+		repaintCell(row, col);  // only the changed cell needs to be drawn again
 	}
 
+
 	/* (non-Javadoc)
 	 * @see SelectedCell#setSelected(int, int)
 	 */
 	@Override
 	public void setSelected(int row, int col) {
+		if (row == selectedRow && col == selectedCol) return;  // nothing to redraw
+		int oldRow = selectedRow, oldCol = selectedCol;
 		// set selected Row / Column
 		selectedRow = row;  // set row
 		selectedCol = col;  // set column
+		// recolor the cell that lost the selection and the one that gained it
+		recolorCell(oldRow, oldCol);
+		recolorCell(row, col);
 	}
 
 	/* (non-Javadoc)
@@ -104,6 +125,54 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 		return selectedCol;  // return currently selected column
 	}
 
+	/*
+	 * Repaints the Cell at the given row and column, if it is on the board.
+	 */
+	private void repaintCell(int row, int col) {
+		if (row >= 0 && row < sudokuBoard.size && col >= 0 && col < sudokuBoard.size) {
+			cells[row * sudokuBoard.size + col].repaint();
+		}
+	}
+
+	/*
+	 * Sets the background of the Cell at the given row and column for whether it is selected, if it is on the board.  The Cell repaints itself if its color changes.
+	 */
+	private void recolorCell(int row, int col) {
+		if (row >= 0 && row < sudokuBoard.size && col >= 0 && col < sudokuBoard.size) {
+			cells[row * sudokuBoard.size + col].updateBackground();
+		}
+	}
+
+	/*
+	 * Works out the background color of the cells in a region, so neighboring regions alternate colors.  Shared with SudokuCanvas.
+	 */
+	static Color regionBackground(SudokuBase board, int region) {
+		// special case for 4 x 3 board.
+		if ( board.rows == 4 && board.columns == 3 ){
+			if ( region % 2 == 0 ) {
+				if (region != 0 && region / 4 == 1 ) {
+					return darkBackground;
+				} else return lightBackground;
+			} else {
+				if (region != 0 && region / 4 == 1 ) {
+					return lightBackground;
+				} else return darkBackground;
+			}
+		// if the board has an odd number of regions per row
+		} else if (board.rows % 2 == 1) {
+			// set the even numbered regions with the light colored background, the odd numbered regions with the dark one.
+			return region % 2 == 0 ? lightBackground : darkBackground;
+		// if there are an even number of regions per row
+		} else {
+			// set the pattern so it swaps every region row
+			if ( Math.ceil((double)region / (double)board.rows) % 2 == 0) {
+				return lightBackground;
+			} else {
+				return darkBackground;
+			}
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see NumericSupport#setNumeric(boolean)
 	 */
@@ -111,6 +180,8 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 	public void setNumeric(boolean flag) {
 		// If Numeric option is clicked or un-clicked, update flag variable.
 		isNumeric = flag;
+		glyphs.setNumeric(flag);  // the cached numbers or symbols are no longer the right ones
+		repaint();  // every cell looks different now
 	}
 
 	/* (non-Javadoc)
@@ -131,8 +202,6 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 	 */
 	class Cell extends JPanel {
 		private int row, col, region;  // values for row, column position.
-		// private boolean isDark;
-		private Border cellBorder; // for the border, a variable since it will have a slightly different behavior when selected.
 		
 		/**
 		 * Constructs a Cell object.  This object is responsible for displaying the values contained in the given row, column of a SudokuBoard model object.
@@ -144,382 +213,32 @@ public class SudokuView extends JPanel implements NumericSupport, SelectedCell,
 			this.col = col;
 			this.region = (row / sudokuBoard.rows * sudokuBoard.rows) + (col / sudokuBoard.columns);
 			setPreferredSize(CELL_DIMENSION);
-		}
-		
-		/**
-		 * Draws the cell based on location on board (for background color), if the cell is currently selected, and the contents of the SudokuBoard model at the Cell's row, column.
-		 */
-		public void paintComponent(Graphics g) {
-			super.paintComponent(g);  // clear whatever was there before
-			// create the cell borders.
-			cellBorder = BorderFactory.createCompoundBorder(
-					BorderFactory.createRaisedBevelBorder(), BorderFactory.createLoweredBevelBorder());
-			setBorder(cellBorder);  // set the border around the cell
-			// if the row needs to be selected, set to the selected background color
+			setBorder(CELL_BORDER);  // set the border around the cell
+			updateBackground();  // the shared border takes its bevel colors from the background, so selection is shown through it
 			// add the mouse listener to see if this one has been clicked on
 			addMouseListener( new MouseAdapter() {
 				 public void mousePressed(MouseEvent e) {
 					 setSelected(row, col);  // if there is a click, set the selected cell to the one that was clicked.	
 				 }
 			 });
-
-			// If the row is selected, color it as such
-			if (row == selectedRow && col == selectedCol) {
-				setBackground(selectedBackground);  // set a row that is selected with the appropriate background color
-				
-				// special case for 4 x 3 board.
-				} else if ( sudokuBoard.rows == 4 && sudokuBoard.columns == 3 ){
-					if ( region % 2 == 0 ) {
-						if (region != 0 && region / 4 == 1 ) {
-							setBackground(darkBackground);
-						} else setBackground(lightBackground);
-					} else if ( region % 2 == 1 ) {
-						if (region != 0 && region / 4 == 1 ) {
-							setBackground(lightBackground);
-						} else setBackground(darkBackground);
-					}
-				// if the board has an odd number of regions per row
-				} else if (sudokuBoard.rows % 2 == 1) {
-					// set the even numbered regions with the light colored background.
-					if ( region  % 2 == 0 ) {
-						setBackground(lightBackground);  // set the appropriate background color
-						// set the odd numbered regions with the light colored background.
-					} else if (region % 2 == 1) {
-						setBackground(darkBackground);  // set the appropriate background color
-					}
-					// if there are an even number of regions per row
-				} else {
-					// set the pattern so it swaps every region row
-					if ( Math.ceil((double)region / (double)sudokuBoard.rows) % 2 == 0) {
-						setBackground(lightBackground);  // set the appropriate background color
-					} else {
-						setBackground(darkBackground); // set the appropriate background color
-					}
-				}
-			
-			// now we have to display the values inside each cell.  If the isNumeric value is checked (set to true) show numbers inside the cells.
-			if (isNumeric) {
-				
-				// if the value is a fixed (given) value
-				if (sudokuBoard.isGiven(row, col)) {
-					setFont(numericBold);  // set to the bold version of the font
-					setForeground(givenColor);  // set the color of the font to the fixed (given) color.
-					g.drawString(String.valueOf(sudokuBoard.getValue(row, col)), this.getWidth() / 2 - this.getWidth() / 10, this.getHeight() / 2 + this.getHeight() / 8);  // draw the number inside the cell.
-				} else {
-					// if the value is not fixed (given) value and not a 0, draw it inside the cell
-					if ( sudokuBoard.getValue(row, col) != 0 ) { 
-						setFont(numeric);  // set to the standard font
-						setForeground(artColor); // set to the standard color
-						g.drawString(String.valueOf(sudokuBoard.getValue(row, col)), this.getWidth() / 2 - this.getWidth() / 10, this.getHeight() / 2 + this.getHeight() / 8);  // draw the number inside the cell
-					}
-					
-				}
-			
-			// if the numeric box is not checked, display the corresponding Mayan character for that number.
-			} else {
-				Graphics2D g2D = (Graphics2D)g.create();  // create Graphics2D object to draw with
-				g2D.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_BEVEL));  // set stroke
-				// switch up to 12 numbers (the max we have characters created for)
-				switch ( sudokuBoard.getValue(row, col) ) {
-				case 0:
-					break;  // don't draw anything that has a value of 0.
-				case 1:
-					// Draw the character that will represent one
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawOne(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawOne(g2D, false); // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 2:
-					// Draw the character that will represent two
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawTwo(g2D, true);
-					} else {
-						drawTwo(g2D, false);
-					}
-					break;
-				case 3:
-					// Draw the character that will represent three
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawThree(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawThree(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 4:
-					// Draw the character that will represent four
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawFour(g2D, true);   // if the character is a given, draw it with the given color
-					} else {
-						drawFour(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 5:
-					// Draw the character that will represent five
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawFive(g2D, true);   // if the character is a given, draw it with the given color
-					} else {
-						drawFive(g2D, false);   // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 6:
-					// Draw the character that will represent two
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawSix(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawSix(g2D, false);   // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 7:
-					// Draw the character that will represent seven
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawSeven(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawSeven(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 8:
-					// Draw the character that will represent eight
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawEight(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawEight(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 9:
-					// Draw the character that will represent nine
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawNine(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawNine(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 10:
-					// Draw the character that will represent ten
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawTen(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawTen(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 11:
-					// Draw the character that will represent eleven
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawEleven(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawEleven(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				case 12:
-					// Draw the character that will represent twelve
-					if ( sudokuBoard.isGiven(row, col) ) {
-						drawTwelve(g2D, true);  // if the character is a given, draw it with the given color
-					} else {
-						drawTwelve(g2D, false);  // if the character is not a given, draw it with the normal color
-					}
-					break;
-				// no more cases, if a number is above 12, it is outside the scope of existing characters that are available inside this class.
-				}
-					
-			}
 		}
-
-		/* Everything below here draws the individual Mayan symbols to represent the numbers */
 		
 		/*
-		 * Draws the Mayan symbol that represents one
+		 * Colors the cell for its region, or as selected.
 		 */
-		private void drawOne(Graphics g2D, boolean colorGiven) {
-			// set color based on if it is given or not
-			if (colorGiven) {
-				g2D.setColor(givenColor);  // set to the given color if it is a given
-			} else {
-				g2D.setColor(artColor);   // if it is not a given, set to normal color
-			}
-			g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 12, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
+		void updateBackground() {
+			setBackground(row == selectedRow && col == selectedCol ? selectedBackground : regionBackground(sudokuBoard, region));
 		}
 		
-		/*
-		 * Draws the symbol that represents two
+		/**
+		 * Draws the cell based on location on board (for background color), if the cell is currently selected, and the contents of the SudokuBoard model at the Cell's row, column.
 		 */
-		private void drawTwo(Graphics g2D, boolean colorGiven) {
-			// set color based on if it is given or not
-			if (colorGiven) {
-				g2D.setColor(givenColor);  // set to the given color if it is a given
-			} else {
-				g2D.setColor(artColor);  // if it is not a given, set to normal color
-			}
+		public void paintComponent(Graphics g) {
+			super.paintComponent(g);  // clear whatever was there before, using the background color (selected or the region's)
 			
-			g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-			g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-
-		}
-
-	
-	/*
-	 * Draws the Mayan symbol that represents three
-	 */
-	private void drawThree(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
+			// now we have to display the value inside the cell, as a number or a Mayan symbol, copied from the images drawn ahead of time.
+			glyphs.draw(g, sudokuBoard.getValue(row, col), sudokuBoard.isGiven(row, col), getWidth(), getHeight());
 		}
-		
-		g2D.fillOval(this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2 - getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 6, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-	}
-
-	
-	/*
-	 * Draws the Mayan symbol that represents four
-	 */
-	private void drawFour(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-		
-		g2D.fillOval(this.getWidth() / 8, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-		g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 14, this.getWidth() / 6, this.getHeight() / 6);  // draw the fourth dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents five
-	 */
-	private void drawFive(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-		
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents six
-	 */
-	private void drawSix(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-		
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() /2); // draw the line
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents seven
-	 */
-	private void drawSeven(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() /2);  // draw the line
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents eight
-	 */
-	private void drawEight(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		g2D.fillOval(this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2 - getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 6, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents nine
-	 */
-	private void drawNine(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		g2D.fillOval(this.getWidth() / 8, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the third dot
-		g2D.fillOval(this.getWidth() / 2 + this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the fourth dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents ten
-	 */
-	private void drawTen(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents eleven
-	 */
-	private void drawEleven(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 12, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the dot
-		}
-	
-	/*
-	 * Draws the Mayan symbol that represents twelve
-	 */
-	private void drawTwelve(Graphics g2D, boolean colorGiven) {
-		// set color based on if it is given or not
-		if (colorGiven) {
-			g2D.setColor(givenColor);  // set to the given color if it is a given
-		} else {
-			g2D.setColor(artColor);  // if it is not a given, set to normal color
-		}
-
-		g2D.drawLine(getWidth() / 6, getHeight() / 2, getWidth() - getWidth() / 6, getHeight() / 2);  // draw the line
-		g2D.drawLine(getWidth() / 6, getHeight() / 2 + getHeight() / 6, getWidth() - getWidth() / 6, getHeight() / 2 + getHeight() / 6);  // draw the bottom line
-		g2D.fillOval(this.getWidth() / 2 - this.getWidth() / 5, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the first dot
-		g2D.fillOval(this.getWidth() / 2, this.getHeight() / 2 - this.getHeight() / 4, this.getWidth() / 6, this.getHeight() / 6);  // draw the second dot
-		}
-
-	
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package pratt.dan.sudoku;
+import java.util.Random;  // for choosing which cells are givens
+
+/**
+ * Creates the boards the benchmarks run on.  Every board is made from the same seed, so runs can be compared with each other.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+final class BenchmarkBoards {
+
+	private BenchmarkBoards() {
+		// only static helpers
+	}
+
+	/*
+	 * Reads the number of rows in each region from a layout parameter such as "4x3" (the benchmarks run every layout from 2x2 to 5x5).
+	 */
+	static int rows(String layout) {
+		return Integer.parseInt(layout.substring(0, layout.indexOf('x')));
+	}
+
+	/*
+	 * Reads the number of columns in each region from a layout parameter such as "4x3".
+	 */
+	static int columns(String layout) {
+		return Integer.parseInt(layout.substring(layout.indexOf('x') + 1));
+	}
+
+	/*
+	 * Creates a solved board with about half of its cells fixed as givens and the rest left filled in, as if the player had just finished.
+	 */
+	static SudokuBoard solvedGame(String layout) {
+		int rows = rows(layout), columns = columns(layout), size = rows * columns;
+		int[] solution = new int[size * size];
+		if (!new CandidateSolver().solve(rows, columns, new int[size * size], solution)) {
+			throw new IllegalStateException("No solution for layout " + layout);
+		}
+		Random random = new Random(42);
+		SudokuBoard board = new SudokuBoard(rows, columns);
+		boolean[] given = new boolean[size * size];
+		for (int cell = 0; cell < given.length; cell++) {
+			given[cell] = random.nextBoolean();
+			if (given[cell]) board.setValue(cell / size, cell % size, solution[cell]);
+		}
+		board.fixGivens();
+		for (int cell = 0; cell < given.length; cell++) {
+			if (!given[cell]) board.setValue(cell / size, cell % size, solution[cell]);
+		}
+		return board;
+	}
+}
@@ -0,0 +1,65 @@
+package pratt.dan.sudoku;
+import java.util.Arrays;  // for trimming the open cell list
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;  // benchmark annotations
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading and writing single cells: SudokuBase.getValue and SudokuBase.setValue (which also keeps the unit counts current, records the move for undo,
+ * and notifies observers).
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	@Param({"2x2", "3x3", "4x3", "4x4", "5x5"})
+	public String layout;
+
+	private SudokuBoard board;
+	private int[] openCells;  // cells that are not givens, as row * size + col
+	private int next;  // which open cell the next call changes
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		board = BenchmarkBoards.solvedGame(layout);
+		int count = 0;
+		int[] cells = new int[board.size * board.size];
+		for (int cell = 0; cell < cells.length; cell++) {
+			if (!board.isGiven(cell / board.size, cell % board.size)) cells[count++] = cell;
+		}
+		openCells = Arrays.copyOf(cells, count);
+	}
+
+	/** Changes one open cell to the next value (wrapping round to empty), a different cell each call. */
+	@Benchmark
+	public void setValue() {
+		int cell = openCells[next];
+		next = next + 1 == openCells.length ? 0 : next + 1;
+		int row = cell / board.size, col = cell % board.size;
+		board.setValue(row, col, (board.getValue(row, col) + 1) % (board.size + 1));
+	}
+
+	/** Changes one open cell and takes the change back with undo, a different cell each call.  Shows the cost of recording and undoing a move. */
+	@Benchmark
+	public void setValueThenUndo() {
+		setValue();
+		board.undo();
+	}
+
+	/** Reads every cell on the board once. */
+	@Benchmark
+	public void getValueWholeBoard(Blackhole sink) {
+		for (int row = 0; row < board.size; row++) {
+			for (int col = 0; col < board.size; col++) {
+				sink.consume(board.getValue(row, col));
+			}
+		}
+	}
+}
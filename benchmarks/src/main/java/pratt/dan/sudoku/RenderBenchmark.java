@@ -0,0 +1,75 @@
+package pratt.dan.sudoku;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;  // headless drawing target
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+
+import org.openjdk.jmh.annotations.*;  // benchmark annotations
+
+/**
+ * Measures drawing the whole board into an image without a screen, with SudokuView (one panel per cell) and with SudokuCanvas (one component).
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+	// Same cell size as the game uses
+	private static final int CELL_SIZE = 50;
+
+	@Param({"2x2", "3x3", "4x3", "4x4", "5x5"})
+	public String layout;
+
+	@Param({"false", "true"})
+	public boolean numeric;
+
+	private SudokuView view;
+	private SudokuCanvas canvas;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SudokuBoard board = BenchmarkBoards.solvedGame(layout);
+		int side = board.size * CELL_SIZE;
+		view = new SudokuView(board);
+		view.setNumeric(numeric);
+		layOut(view, side);
+		canvas = new SudokuCanvas(board);
+		canvas.setNumeric(numeric);
+		layOut(canvas, side);
+		image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+		graphics = image.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage paintSudokuView() {
+		view.paint(graphics);
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage paintSudokuCanvas() {
+		canvas.paint(graphics);
+		return image;
+	}
+
+	/*
+	 * Sizes a component and lays out its children, as showing it in a window would.
+	 */
+	private static void layOut(JComponent component, int side) {
+		component.setSize(side, side);
+		component.doLayout();
+	}
+}
@@ -0,0 +1,54 @@
+package pratt.dan.sudoku;
+import java.io.File;  // save file
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;  // benchmark annotations
+
+/**
+ * Measures saving and loading a game: the full round trip through a file with writeToStream and readFromStream,
+ * and the in-memory encode / decode step on its own.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SaveBenchmark {
+
+	@Param({"2x2", "3x3", "4x3", "4x4", "5x5"})
+	public String layout;
+
+	private SudokuBoard board;
+	private File file;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		board = BenchmarkBoards.solvedGame(layout);
+		file = File.createTempFile("sudoku-bench", ".sav");
+		file.deleteOnExit();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		file.delete();
+	}
+
+	/** Writes the game to a file and reads it back. */
+	@Benchmark
+	public SudokuBoard fileRoundTrip() {
+		board.writeToStream(board, file);
+		return board.readFromStream(file);
+	}
+
+	/** Packs the game into the save format and unpacks it, without touching the disk. */
+	@Benchmark
+	public SudokuBoard memoryRoundTrip() throws IOException {
+		ByteBuffer data = SudokuBase.encode(board);
+		return SudokuBase.decode(data);
+	}
+}
@@ -0,0 +1,49 @@
+package pratt.dan.sudoku;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;  // benchmark annotations
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures checking the state of every row, column and region of a finished board, as the completion view and win check do.
+ * @author Dan Pratt
+ * @version Version 0.8: Sudoku Solver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+	@Param({"2x2", "3x3", "4x3", "4x4", "5x5"})
+	public String layout;
+
+	private SudokuBoard board;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		board = BenchmarkBoards.solvedGame(layout);
+	}
+
+	@Benchmark
+	public void rowStates(Blackhole sink) {
+		for (int i = 0; i < board.size; i++) sink.consume(board.getRowState(i));
+	}
+
+	@Benchmark
+	public void columnStates(Blackhole sink) {
+		for (int i = 0; i < board.size; i++) sink.consume(board.getColumnState(i));
+	}
+
+	@Benchmark
+	public void regionStates(Blackhole sink) {
+		for (int i = 0; i < board.size; i++) sink.consume(board.getRegionState(i));
+	}
+
+	@Benchmark
+	public boolean isSolved() {
+		return board.isSolved();
+	}
+}